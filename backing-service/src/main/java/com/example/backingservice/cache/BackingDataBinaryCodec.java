@@ -0,0 +1,50 @@
+package com.example.backingservice.cache;
+
+import com.example.backingservice.model.BackingData;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.example.backingservice.cache.BinaryCodec.readDateTime;
+import static com.example.backingservice.cache.BinaryCodec.readNullableLong;
+import static com.example.backingservice.cache.BinaryCodec.readString;
+import static com.example.backingservice.cache.BinaryCodec.writeDateTime;
+import static com.example.backingservice.cache.BinaryCodec.writeNullableLong;
+import static com.example.backingservice.cache.BinaryCodec.writeString;
+
+public class BackingDataBinaryCodec implements BinaryCodec<BackingData> {
+    
+    // Version 1: id, key, value, createdAt, updatedAt
+    private static final int CURRENT_VERSION = 1;
+    
+    @Override
+    public Class<BackingData> type() {
+        return BackingData.class;
+    }
+    
+    @Override
+    public int currentVersion() {
+        return CURRENT_VERSION;
+    }
+    
+    @Override
+    public void write(BackingData data, DataOutput out) throws IOException {
+        writeNullableLong(out, data.getId());
+        writeString(out, data.getKey());
+        writeString(out, data.getValue());
+        writeDateTime(out, data.getCreatedAt());
+        writeDateTime(out, data.getUpdatedAt());
+    }
+    
+    @Override
+    public BackingData read(DataInput in, int version) throws IOException {
+        BackingData data = new BackingData();
+        data.setId(readNullableLong(in));
+        data.setKey(readString(in));
+        data.setValue(readString(in));
+        data.setCreatedAt(readDateTime(in));
+        data.setUpdatedAt(readDateTime(in));
+        return data;
+    }
+}
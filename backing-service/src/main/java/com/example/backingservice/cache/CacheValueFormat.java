@@ -0,0 +1,6 @@
+package com.example.backingservice.cache;
+
+public enum CacheValueFormat {
+    JSON,
+    BINARY
+}
@@ -1,17 +1,23 @@
 package com.example.backingservice.config;
 
+import com.example.backingservice.cache.BackingDataBinaryCodec;
+import com.example.backingservice.cache.CacheValueFormat;
+import com.example.backingservice.cache.VersionedBinaryRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfig {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       @Value("${cache.serializers.backing-data:json}") CacheValueFormat valueFormat) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
@@ -19,8 +25,11 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
         
-        // Use JSON serializer for values
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // BackingData values use the versioned binary format when enabled; anything else stays JSON
+        RedisSerializer<Object> valueSerializer = new VersionedBinaryRedisSerializer<>(
+                new BackingDataBinaryCodec(), new GenericJackson2JsonRedisSerializer(),
+                valueFormat == CacheValueFormat.BINARY);
+        template.setValueSerializer(valueSerializer);
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
         
         template.afterPropertiesSet();
@@ -0,0 +1,75 @@
+#!/bin/bash
+
+# Sparse Fieldset Benchmark
+# Imports a catalog of products with full 1000-character descriptions, then compares response size and
+# latency of the product list endpoints returning whole products against ?fields=name,price,stockQuantity.
+# Make sure the Product Service is running on http://localhost:8081 (best against an otherwise empty catalog)
+
+SERVICE_URL="${SERVICE_URL:-http://localhost:8081}"
+BASE_URL="$SERVICE_URL/api/products"
+PRODUCTS="${PRODUCTS:-50000}"
+RUNS="${RUNS:-5}"
+FIELDS="${FIELDS:-name,price,stockQuantity}"
+
+echo "📏 Sparse fieldset benchmark"
+echo "============================"
+echo "Products: $PRODUCTS, runs per endpoint: $RUNS, fields: $FIELDS"
+echo ""
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+# SKIP_IMPORT=1 measures the catalog that is already loaded
+if [ -z "$SKIP_IMPORT" ]; then
+echo -e "${BLUE}1. Importing $PRODUCTS products...${NC}"
+DESCRIPTION=$(printf 'x%.0s' $(seq 1 1000))
+IMPORT_FILE=$(mktemp)
+{
+    echo "name,description,price,stockQuantity,category"
+    for i in $(seq 1 $PRODUCTS); do
+        echo "Benchmark Product $i,$DESCRIPTION,$((i % 500 + 1)).99,$((i % 50 + 1)),Bench$((i % 20))"
+    done
+} > "$IMPORT_FILE"
+IMPORT_RESPONSE=$(curl -s -X POST "$BASE_URL/import" -H "Content-Type: text/csv" --data-binary @"$IMPORT_FILE")
+rm -f "$IMPORT_FILE"
+IMPORTED=$(echo "$IMPORT_RESPONSE" | grep -o '"importedCount":[0-9]*' | cut -d':' -f2)
+if [ -z "$IMPORTED" ]; then
+    echo -e "${RED}❌ Import failed: $IMPORT_RESPONSE${NC}"
+    exit 1
+fi
+echo "Imported: $IMPORTED"
+echo ""
+fi
+
+# Prints "<bytes> <median seconds>" over RUNS requests, after one warm-up request
+measure() {
+    curl -s -o /dev/null "$1"
+    for run in $(seq 1 $RUNS); do
+        curl -s -o /dev/null -w '%{size_download} %{time_total}\n' "$1"
+    done | sort -k2 -n | awk -v runs=$RUNS 'NR == int((runs + 1) / 2) { print $1, $2 }'
+}
+
+compare() {
+    local label=$1
+    local url=$2
+    local separator="?"
+    [[ "$url" == *"?"* ]] && separator="&"
+    read FULL_BYTES FULL_TIME <<< "$(measure "$url")"
+    read SPARSE_BYTES SPARSE_TIME <<< "$(measure "$url${separator}fields=$FIELDS")"
+    awk -v label="$label" -v fb="$FULL_BYTES" -v ft="$FULL_TIME" -v sb="$SPARSE_BYTES" -v st="$SPARSE_TIME" 'BEGIN {
+        printf "%-22s %12d %12d %6.1f%% %9.0f ms %9.0f ms %6.1f%%\n", label, fb, sb,
+            (fb > 0 ? 100 * (fb - sb) / fb : 0), ft * 1000, st * 1000, (ft > 0 ? 100 * (ft - st) / ft : 0)
+    }'
+}
+
+echo -e "${BLUE}2. Measuring (median of $RUNS)...${NC}"
+printf "%-22s %12s %12s %7s %12s %12s %7s\n" "Endpoint" "Full bytes" "Sparse bytes" "Saved" "Full time" "Sparse time" "Saved"
+compare "GET /" "$BASE_URL"
+compare "GET /category/Bench1" "$BASE_URL/category/Bench1"
+compare "GET /search" "$BASE_URL/search?name=Benchmark%20Product%201"
+compare "GET /in-stock" "$BASE_URL/in-stock"
+echo ""
+echo -e "${GREEN}✅ Done${NC}"
@@ -0,0 +1,113 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+// Compares a JMH JSON report with the committed baseline and exits with status 1 when any benchmark got
+// slower by more than the allowed fraction, beyond the error margins JMH reports for both runs.
+// A benchmark missing from the baseline, or one in the baseline that the run selected but did not report,
+// fails too: either the baseline is stale or a benchmark broke, and neither may pass unnoticed.
+// Usage: BaselineComparison <baseline.json> <result.json> <max-regression, e.g. 0.15> <jmh include regex>
+public class BaselineComparison {
+    
+    public static void main(String[] args) throws IOException {
+        Path baselinePath = Path.of(args[0]);
+        Path resultPath = Path.of(args[1]);
+        double maxRegression = Double.parseDouble(args[2]);
+        // Baseline entries outside the run's selection are skipped, not missing
+        Pattern include = Pattern.compile(args[3]);
+        
+        if (!Files.exists(baselinePath)) {
+            System.out.println("No baseline at " + baselinePath + "; copy " + resultPath + " there to create one");
+            System.exit(1);
+        }
+        Map<String, JsonNode> baseline = read(baselinePath);
+        Map<String, JsonNode> result = read(resultPath);
+        
+        int regressions = 0;
+        int unmatched = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+            JsonNode current = entry.getValue().get("primaryMetric");
+            JsonNode previous = baseline.containsKey(entry.getKey()) ? baseline.get(entry.getKey()).get("primaryMetric") : null;
+            if (previous == null) {
+                System.out.printf("%-90s %14s %14s %9s%n", entry.getKey(), "-", format(current), "NEW");
+                unmatched++;
+                continue;
+            }
+            String mode = entry.getValue().get("mode").asText();
+            double change = slowdown(mode, previous.get("score").asDouble(), current.get("score").asDouble());
+            // Runs on one machine vary by several percent, so the slowdown must also clear both error margins
+            double worstCaseChange = slowdown(mode,
+                    previous.get("score").asDouble() + signed(mode, previous.get("scoreError").asDouble()),
+                    current.get("score").asDouble() - signed(mode, current.get("scoreError").asDouble()));
+            boolean regressed = change > maxRegression && worstCaseChange > 0;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14s %14s %+8.1f%%%s%n", entry.getKey(), format(previous), format(current),
+                    change * 100, regressed ? "  REGRESSION" : "");
+        }
+        for (Map.Entry<String, JsonNode> entry : baseline.entrySet()) {
+            if (!result.containsKey(entry.getKey())
+                    && include.matcher(entry.getValue().get("benchmark").asText()).find()) {
+                System.out.printf("%-90s %14s %14s %9s%n", entry.getKey(), format(entry.getValue().get("primaryMetric")),
+                        "-", "NOT RUN");
+                unmatched++;
+            }
+        }
+        
+        if (unmatched > 0) {
+            System.out.printf("%d benchmark(s) new or not run; copy %s over %s from a full run on main%n",
+                    unmatched, resultPath, baselinePath);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) significantly more than %.0f%% slower than the baseline%n",
+                    regressions, maxRegression * 100);
+        }
+        if (unmatched > 0 || regressions > 0) {
+            System.exit(1);
+        }
+        System.out.printf("No benchmark significantly more than %.0f%% slower than the baseline%n", maxRegression * 100);
+    }
+    
+    // Keyed by benchmark name plus its @Param values, so each parameter combination is compared on its own
+    private static Map<String, JsonNode> read(Path path) throws IOException {
+        Map<String, JsonNode> benchmarks = new LinkedHashMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(new File(path.toString()))) {
+            String name = benchmark.get("benchmark").asText().replaceFirst("^com\\.example\\.", "");
+            Map<String, String> params = new TreeMap<>();
+            if (benchmark.has("params")) {
+                benchmark.get("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            }
+            benchmarks.put(params.isEmpty() ? name : name + params, benchmark);
+        }
+        return benchmarks;
+    }
+    
+    // Positive when the current run is slower, as a fraction of the baseline
+    private static double slowdown(String mode, double baseline, double current) {
+        if ("thrpt".equals(mode)) {
+            return (baseline - current) / baseline;
+        }
+        return (current - baseline) / baseline;
+    }
+    
+    // The error margin with the sign that makes a score slower in the benchmark's mode
+    private static double signed(String mode, double error) {
+        return "thrpt".equals(mode) ? -error : error;
+    }
+    
+    private static String format(JsonNode metric) {
+        return String.format("%.1f %s", metric.get("score").asDouble(), metric.get("scoreUnit").asText());
+    }
+}
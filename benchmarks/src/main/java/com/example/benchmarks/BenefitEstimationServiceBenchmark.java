@@ -0,0 +1,37 @@
+package com.example.benchmarks;
+
+import com.example.benefitestimationservice.model.BenefitType;
+import com.example.benefitestimationservice.service.BenefitEstimationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenefitEstimationServiceBenchmark {
+    
+    private final BigDecimal orderTotal = new BigDecimal("1234.56");
+    private final BenefitType[] benefitTypes = BenefitType.values();
+    
+    // One call per benefit type, so the score covers every branch of the switch
+    @Benchmark
+    public void calculateBenefitAmount(Blackhole blackhole) {
+        for (BenefitType benefitType : benefitTypes) {
+            blackhole.consume(BenefitEstimationService.calculateBenefitAmount(orderTotal, benefitType));
+        }
+    }
+}
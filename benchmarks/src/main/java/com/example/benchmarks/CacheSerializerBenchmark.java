@@ -0,0 +1,59 @@
+package com.example.benchmarks;
+
+import com.example.productservice.cache.CacheValueFormat;
+import com.example.productservice.cache.ProductBinaryCodec;
+import com.example.productservice.cache.VersionedBinaryRedisSerializer;
+import com.example.productservice.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// The product cache's Redis value serializer as RedisConfig builds it, in each cache.serializers.products format
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+    
+    @Param({"JSON", "BINARY"})
+    private CacheValueFormat format;
+    
+    private VersionedBinaryRedisSerializer<Product> serializer;
+    private Product product;
+    private byte[] serialized;
+    
+    @Setup
+    public void setUp() {
+        serializer = new VersionedBinaryRedisSerializer<>(new ProductBinaryCodec(),
+                new GenericJackson2JsonRedisSerializer(), format == CacheValueFormat.BINARY);
+        product = new Product("Wireless Headphones", "Noise-cancelling over-ear headphones with 30 hour battery life",
+                new BigDecimal("199.99"), 42, "Electronics");
+        product.setId(12345L);
+        product.setVersion(7L);
+        serialized = serializer.serialize(product);
+    }
+    
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(product);
+    }
+    
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.benchmarks;
+
+import com.example.orderservice.dto.OrderItemRequestDto;
+import com.example.orderservice.dto.OrderRequestDto;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The part of OrderService.createOrder that runs after the reservation: building the items and totaling
+// the order from the reserved products.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderServiceBenchmark {
+    
+    @Param({"1", "10", "100"})
+    private int cartSize;
+    
+    private OrderService orderService;
+    private OrderRequestDto orderRequest;
+    private Map<Long, ProductDto> reservedProducts;
+    
+    @Setup
+    public void setUp() {
+        orderService = new OrderService(null, null, null, null, null, null, null, null, 25, 4, Duration.ofSeconds(30));
+        
+        List<OrderItemRequestDto> items = new ArrayList<>();
+        reservedProducts = new HashMap<>();
+        for (long id = 1; id <= cartSize; id++) {
+            items.add(new OrderItemRequestDto(id, (int) (id % 5) + 1));
+            reservedProducts.put(id, new ProductDto(id, "Product " + id, "Description " + id,
+                    new BigDecimal(id % 500 + ".99"), 100, "Category"));
+        }
+        orderRequest = new OrderRequestDto("Jane Doe", "jane@example.com", "1 Main St", items);
+    }
+    
+    @Benchmark
+    public Order buildOrder() {
+        return orderService.buildOrder(orderRequest, reservedProducts);
+    }
+}
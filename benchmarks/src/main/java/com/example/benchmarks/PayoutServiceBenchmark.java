@@ -0,0 +1,33 @@
+package com.example.benchmarks;
+
+import com.example.payoutservice.service.PayoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayoutServiceBenchmark {
+    
+    @Benchmark
+    public String generateTransactionId() {
+        return PayoutService.generateTransactionId();
+    }
+    
+    // Payouts are created on many request threads at once, which contend on the shared Math.random generator
+    @Benchmark
+    @Threads(4)
+    public String generateTransactionIdContended() {
+        return PayoutService.generateTransactionId();
+    }
+}
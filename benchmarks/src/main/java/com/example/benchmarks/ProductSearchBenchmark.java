@@ -0,0 +1,155 @@
+package com.example.benchmarks;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Name search with the in-process index against the findByNameContainingIgnoreCase query it replaces,
+// both reading the products from the same in-memory H2 table. The LIKE query is the SQL Hibernate
+// generates for the derived query; indexedSearch is the index lookup plus the findAllById fetch of the
+// matches, as ProductService.searchProductsByName does it once the index is ready.
+// Every query matches one product in 10,000, so the result size grows with the catalog like the scan does.
+// The two are not equivalent for every query: the index matches word prefixes, so a mid-word substring
+// such as "eries0042" only matches through the LIKE query.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+    
+    private static final String[] ADJECTIVES = {"Steel", "Wooden", "Compact", "Classic", "Wireless", "Organic",
+            "Portable", "Deluxe", "Vintage", "Smart"};
+    private static final String[] NOUNS = {"Kettle", "Chair", "Lamp", "Speaker", "Backpack", "Blender", "Desk",
+            "Headphones", "Toaster", "Camera"};
+    private static final String[] CATEGORIES = {"Kitchen", "Furniture", "Electronics", "Outdoor", "Office"};
+    private static final int SERIES = 10_000;
+    private static final String COLUMNS = "id, name, description, price, stock_quantity, category, version";
+    
+    @Param({"10000", "100000", "1000000"})
+    private int catalogSize;
+    
+    private Connection connection;
+    private PreparedStatement likeQuery;
+    private PreparedStatement findAllById;
+    private ProductSearchIndex searchIndex;
+    private int nextSeries;
+    
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-" + catalogSize, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                    + "description VARCHAR(1000), price DECIMAL(10, 2) NOT NULL, stock_quantity INT NOT NULL, "
+                    + "category VARCHAR(255) NOT NULL, version BIGINT NOT NULL)");
+        }
+        insertProducts();
+        
+        likeQuery = connection.prepareStatement("SELECT " + COLUMNS + " FROM products "
+                + "WHERE UPPER(name) LIKE UPPER(?) ESCAPE '\\'");
+        findAllById = connection.prepareStatement("SELECT " + COLUMNS + " FROM products WHERE id = ANY(?)");
+        
+        ProductRepository productRepository = Stubs.of(ProductRepository.class, Map.of(
+                "scrollAll", args -> {
+                    scrollAll((Consumer<Product>) args[1]);
+                    return null;
+                }));
+        searchIndex = new ProductSearchIndex(productRepository, 1, 15, 500);
+        searchIndex.rebuild();
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+    
+    private void insertProducts() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO products (" + COLUMNS + ") "
+                + "VALUES (?, ?, NULL, ?, 100, ?, 0)")) {
+            for (long id = 1; id <= catalogSize; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, ADJECTIVES[(int) (id % ADJECTIVES.length)] + " "
+                        + NOUNS[(int) (id / ADJECTIVES.length % NOUNS.length)] + String.format(" Series%04d", id % SERIES));
+                insert.setBigDecimal(3, BigDecimal.valueOf(id % 500 + 1));
+                insert.setString(4, CATEGORIES[(int) (id % CATEGORIES.length)]);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+    
+    private void scrollAll(Consumer<Product> consumer) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT " + COLUMNS + " FROM products")) {
+            while (rows.next()) {
+                consumer.accept(toProduct(rows));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private String nextQuery() {
+        nextSeries = (nextSeries + 7919) % SERIES;
+        return String.format("series%04d", nextSeries);
+    }
+    
+    @Benchmark
+    public List<Product> likeQuery() throws SQLException {
+        likeQuery.setString(1, "%" + nextQuery() + "%");
+        return read(likeQuery);
+    }
+    
+    @Benchmark
+    public List<Product> indexedSearch() throws SQLException {
+        List<Long> ids = searchIndex.search(nextQuery()).orElseThrow();
+        findAllById.setObject(1, ids.toArray(new Long[0]));
+        return read(findAllById);
+    }
+    
+    private static List<Product> read(PreparedStatement query) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                products.add(toProduct(rows));
+            }
+        }
+        return products;
+    }
+    
+    private static Product toProduct(ResultSet row) throws SQLException {
+        Product product = new Product(row.getString("name"), row.getString("description"),
+                row.getBigDecimal("price"), row.getInt("stock_quantity"), row.getString("category"));
+        product.setId(row.getLong("id"));
+        return product;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmarks;
+
+import com.example.productservice.inventory.DatabaseInventoryLedger;
+import com.example.productservice.inventory.InStockIndex;
+import com.example.productservice.outbox.ProductOutbox;
+import com.example.productservice.repository.ProductEventRepository;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// ProductService.reserveStock through the database ledger, with the products table replaced by an
+// in-memory map: measures the service, ledger, cache eviction and outbox work around each reservation,
+// not the UPDATE itself
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductServiceBenchmark {
+    
+    private static final int PRODUCTS = 1000;
+    
+    private final Map<Long, Integer> stock = new ConcurrentHashMap<>();
+    private ProductService productService;
+    private long nextProductId;
+    
+    @Setup
+    public void setUp() {
+        for (long id = 1; id <= PRODUCTS; id++) {
+            stock.put(id, Integer.MAX_VALUE);
+        }
+        stock.put(0L, 0);
+        
+        ProductRepository productRepository = Stubs.of(ProductRepository.class, Map.of(
+                "decrementStock", args -> decrementStock((Long) args[0], (Integer) args[1]),
+                "findStockQuantityById", args -> Optional.ofNullable(stock.get((Long) args[0])),
+                // Re-read for the in-stock index, which is a no-op here
+                "findAllById", args -> List.of()));
+        ProductEventRepository productEventRepository = Stubs.of(ProductEventRepository.class, Map.of(
+                "save", args -> args[0]));
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(ProductService.PRODUCT_CACHE);
+        // Never reaches Redis: the findAllById stub leaves the index nothing to record after a reservation
+        InStockIndex inStockIndex = new InStockIndex(
+                new StringRedisTemplate(Stubs.of(RedisConnectionFactory.class, Map.of())));
+        ProductOutbox productOutbox = new ProductOutbox(productEventRepository, new ObjectMapper(),
+                Duration.ofDays(7), false);
+        
+        productService = new ProductService(productRepository, null,
+                new DatabaseInventoryLedger(productRepository, cacheManager, inStockIndex, productOutbox),
+                inStockIndex, cacheManager, productOutbox, 500);
+    }
+    
+    private int decrementStock(Long id, Integer quantity) {
+        int[] updated = new int[1];
+        stock.computeIfPresent(id, (key, current) -> {
+            if (current < quantity) {
+                return current;
+            }
+            updated[0] = 1;
+            return current - quantity;
+        });
+        return updated[0];
+    }
+    
+    @Benchmark
+    public boolean reserveStock() {
+        nextProductId = nextProductId % PRODUCTS + 1;
+        return productService.reserveStock(nextProductId, 1);
+    }
+    
+    @Benchmark
+    public boolean reserveStockInsufficient() {
+        return productService.reserveStock(0L, 1);
+    }
+}
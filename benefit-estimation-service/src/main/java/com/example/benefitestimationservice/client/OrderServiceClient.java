@@ -11,8 +11,9 @@ public class OrderServiceClient {
     
     private final WebClient webClient;
     
-    public OrderServiceClient(@Value("${order-service.url}") String orderServiceUrl) {
-        this.webClient = WebClient.builder()
+    public OrderServiceClient(WebClient.Builder webClientBuilder,
+                              @Value("${order-service.url}") String orderServiceUrl) {
+        this.webClient = webClientBuilder
                 .baseUrl(orderServiceUrl)
                 .build();
     }
@@ -64,7 +64,7 @@ public class BenefitEstimationService {
         return benefitEstimationRepository.save(estimation);
     }
     
-    private BigDecimal calculateBenefitAmount(BigDecimal orderTotal, BenefitType benefitType) {
+    public static BigDecimal calculateBenefitAmount(BigDecimal orderTotal, BenefitType benefitType) {
         BigDecimal benefitPercentage;
         
         switch (benefitType) {
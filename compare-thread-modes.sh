@@ -0,0 +1,76 @@
+#!/bin/bash
+
+# Platform vs. Virtual Thread Comparison
+# Runs quick-load-test.yml against the docker-compose stack once with platform threads and once
+# with virtual threads, then reports p50/p99 latency and the peak number of in-flight order requests.
+# Requires docker compose, artillery and node.
+
+TARGET="${TARGET:-http://host.docker.internal}"
+ORDER_SERVICE_URL="${ORDER_SERVICE_URL:-http://localhost:8082}"
+REPORT_DIR="${REPORT_DIR:-./thread-mode-reports}"
+
+echo "🧪 Comparing platform and virtual threads"
+echo "========================================="
+echo ""
+
+# Colors for output
+BLUE='\033[0;34m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+mkdir -p "$REPORT_DIR"
+
+wait_for_order_service() {
+    for i in $(seq 1 120); do
+        if curl -s "$ORDER_SERVICE_URL/actuator/health" | grep -q UP; then
+            return 0
+        fi
+        sleep 2
+    done
+    echo "order-service did not become healthy"
+    exit 1
+}
+
+# Samples in-flight POST requests on order-service once per second until the load test finishes
+sample_in_flight() {
+    local max=0
+    while kill -0 $1 2>/dev/null; do
+        local active=$(curl -s "$ORDER_SERVICE_URL/actuator/metrics/http.server.requests.active?tag=method:POST" \
+            | grep -o '"ACTIVE_TASKS","value":[0-9.]*' | cut -d':' -f2 | cut -d'.' -f1)
+        if [ -n "$active" ] && [ "$active" -gt "$max" ]; then
+            max=$active
+        fi
+        sleep 1
+    done
+    echo $max
+}
+
+run_mode() {
+    local mode=$1
+    local virtual=$2
+
+    echo -e "${BLUE}Starting stack with $mode threads...${NC}"
+    # Virtual threads need a Java 21 build and runtime
+    JAVA_VERSION=21 MAVEN_PROFILES=-Pvirtual-threads VIRTUAL_THREADS=$virtual \
+        docker compose up -d --build product-service order-service > /dev/null
+    wait_for_order_service
+
+    artillery run --target "$TARGET" --output "$REPORT_DIR/$mode.json" quick-load-test.yml > "$REPORT_DIR/$mode.log" &
+    local artillery_pid=$!
+    local max_in_flight=$(sample_in_flight $artillery_pid)
+    wait $artillery_pid
+
+    node -e "
+        const report = require('$REPORT_DIR/$mode.json');
+        const rt = report.aggregate.summaries['http.response_time'];
+        console.log('$mode'.padEnd(10) + 'p50=' + rt.median + 'ms  p99=' + rt.p99 + 'ms  max in-flight orders=$max_in_flight');
+    " | tee -a "$REPORT_DIR/summary.txt"
+    echo ""
+}
+
+: > "$REPORT_DIR/summary.txt"
+run_mode platform false
+run_mode virtual true
+
+echo -e "${GREEN}✅ Summary written to $REPORT_DIR/summary.txt${NC}"
+cat "$REPORT_DIR/summary.txt"
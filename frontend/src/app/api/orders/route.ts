@@ -55,20 +55,36 @@ const dummyOrders = [
   },
 ];
 
+// order-service returns one keyset page per call (at most 100 orders) with the next page's cursor in the
+// X-Next-Cursor header, so the proxy follows the cursor until the last page to return every order
+const ORDER_PAGE_SIZE = 100;
+
 export async function GET() {
   try {
     // Try to connect to the actual microservice first
-    const response = await fetch("http://order-service:8082/api/orders", {
-      method: "GET",
-      headers: {
-        "Content-Type": "application/json",
-      },
-    });
+    const data = [];
+    let after: string | null = null;
+    do {
+      const query: string = after
+        ? `?size=${ORDER_PAGE_SIZE}&after=${after}`
+        : `?size=${ORDER_PAGE_SIZE}`;
+      const response: Response = await fetch(
+        `http://order-service:8082/api/orders${query}`,
+        {
+          method: "GET",
+          headers: {
+            "Content-Type": "application/json",
+          },
+        }
+      );
+      if (!response.ok) {
+        throw new Error(`order-service answered ${response.status}`);
+      }
+      data.push(...(await response.json()));
+      after = response.headers.get("X-Next-Cursor");
+    } while (after);
 
-    if (response.ok) {
-      const data = await response.json();
-      return NextResponse.json({ data });
-    }
+    return NextResponse.json({ data });
   } catch (error) {
     console.log("Microservice not available, using dummy data");
   }
@@ -0,0 +1,43 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.dto.ProductDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// What order creation needs of a product, and nothing else: description and category are dropped and the
+// price is held in cents, which keeps a replica of a large catalog to a small fraction of the full DTOs
+public final class CatalogEntry {
+    
+    private final String name;
+    private final long priceInCents;
+    private final int stockQuantity;
+    
+    CatalogEntry(String name, long priceInCents, int stockQuantity) {
+        this.name = name;
+        this.priceInCents = priceInCents;
+        this.stockQuantity = stockQuantity;
+    }
+    
+    static CatalogEntry of(ProductDto product) {
+        long priceInCents = product.getPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        int stockQuantity = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        return new CatalogEntry(product.getName(), priceInCents, stockQuantity);
+    }
+    
+    CatalogEntry withStockQuantity(int stockQuantity) {
+        return new CatalogEntry(name, priceInCents, stockQuantity);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public BigDecimal getPrice() {
+        return BigDecimal.valueOf(priceInCents, 2);
+    }
+    
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+}
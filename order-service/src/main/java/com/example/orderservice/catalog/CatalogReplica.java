@@ -0,0 +1,123 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.ProductEventDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Eventually consistent in-memory copy of the product catalog. Bootstrapped from product-service's NDJSON
+// snapshot, which also reports the change event offset it starts from, then kept fresh by replaying the
+// change events after that offset. Until the first snapshot has loaded, lookups report nothing and callers
+// fall back to product-service, as they do when the replica is disabled.
+@Component
+public class CatalogReplica {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogReplica.class);
+    
+    private final ProductServiceClient productServiceClient;
+    private final boolean enabled;
+    private final int pollBatchSize;
+    
+    private volatile Map<Long, CatalogEntry> entries = new ConcurrentHashMap<>();
+    private volatile long offset;
+    private volatile boolean ready;
+    private volatile long lastRefreshMillis;
+    
+    public CatalogReplica(ProductServiceClient productServiceClient,
+                          MeterRegistry meterRegistry,
+                          @Value("${catalog.replica.enabled:true}") boolean enabled,
+                          @Value("${catalog.replica.poll-batch-size:500}") int pollBatchSize) {
+        this.productServiceClient = productServiceClient;
+        this.enabled = enabled;
+        this.pollBatchSize = pollBatchSize;
+        
+        Gauge.builder("catalog.replica.size", this, replica -> replica.entries.size())
+                .register(meterRegistry);
+        Gauge.builder("catalog.replica.offset", this, replica -> replica.offset)
+                .register(meterRegistry);
+        Gauge.builder("catalog.replica.staleness", this,
+                        replica -> replica.ready ? (System.currentTimeMillis() - replica.lastRefreshMillis) / 1000.0 : Double.NaN)
+                .baseUnit("seconds")
+                .description("Time since the replica last caught up with product-service")
+                .register(meterRegistry);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public Optional<CatalogEntry> find(Long productId) {
+        return Optional.ofNullable(entries.get(productId));
+    }
+    
+    // Also retries the snapshot while product-service is unreachable
+    @Scheduled(fixedDelayString = "${catalog.replica.poll-interval:PT1S}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!ready) {
+                bootstrap();
+            }
+            catchUp();
+            lastRefreshMillis = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the product catalog replica: {}", e.getMessage());
+        }
+    }
+    
+    private void bootstrap() {
+        ResponseEntity<Flux<ProductDto>> snapshot = productServiceClient.streamProducts().block();
+        if (snapshot == null || snapshot.getBody() == null) {
+            throw new RuntimeException("Empty product snapshot");
+        }
+        long snapshotOffset = Long.parseLong(snapshot.getHeaders().getFirst(ProductServiceClient.EVENT_OFFSET_HEADER));
+        Map<Long, CatalogEntry> loaded = new ConcurrentHashMap<>();
+        snapshot.getBody()
+                .doOnNext(product -> loaded.put(product.getId(), CatalogEntry.of(product)))
+                .blockLast();
+        
+        entries = loaded;
+        offset = snapshotOffset;
+        ready = true;
+        logger.info("Loaded {} products into the catalog replica at event offset {}", loaded.size(), snapshotOffset);
+    }
+    
+    // Events after the snapshot offset may repeat changes the snapshot already shows; applied in order they
+    // end at the same state
+    private void catchUp() {
+        List<ProductEventDto> events;
+        do {
+            events = productServiceClient.getProductEvents(offset, pollBatchSize).block();
+            if (events == null || events.isEmpty()) {
+                return;
+            }
+            events.forEach(this::apply);
+            offset = events.get(events.size() - 1).getOffset();
+        } while (events.size() == pollBatchSize);
+    }
+    
+    private void apply(ProductEventDto event) {
+        switch (event.getType()) {
+            case "CREATED", "UPDATED" -> entries.put(event.getProductId(), CatalogEntry.of(event.getProduct()));
+            case "STOCK_CHANGED" -> entries.computeIfPresent(event.getProductId(),
+                    (id, entry) -> entry.withStockQuantity(event.getStockQuantity()));
+            case "DELETED" -> entries.remove(event.getProductId());
+            default -> logger.debug("Ignoring product event of type {}", event.getType());
+        }
+    }
+}
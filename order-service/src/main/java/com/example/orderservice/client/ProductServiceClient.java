@@ -1,35 +1,200 @@
 package com.example.orderservice.client;
 
+import com.example.orderservice.dto.OrderItemRequestDto;
 import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.ProductEventDto;
+import com.example.orderservice.dto.StockReservationDto;
+import com.example.orderservice.dto.StockReservationRequestDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+// Calls to product-service go through one circuit breaker and one bulkhead (see ResilienceConfig) and a
+// per-call timeout, so a slow or failing product-service costs callers a quick ProductServiceUnavailableException
+// rather than a blocked thread. Confirming and releasing reservations bypass both, since skipping them
+// would strand stock; they have their own retries in OrderReservationCoordinator.
 @Component
 public class ProductServiceClient {
     
+    private static final Logger logger = LoggerFactory.getLogger(ProductServiceClient.class);
+    
+    // Set by product-service on /stream: the change event offset the snapshot starts from
+    public static final String EVENT_OFFSET_HEADER = "X-Event-Offset";
+    
     private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Duration callTimeout;
+    private final Duration staleFallbackMaxAge;
+    private final Counter fallbackHits;
+    
+    // Last product body seen per id with its ETag; revalidated on every lookup, and only served without
+    // asking while product-service is unavailable (see staleProduct)
+    private final Cache<Long, CachedProduct> productCache;
     
-    public ProductServiceClient(@Value("${product-service.url}") String productServiceUrl) {
-        this.webClient = WebClient.builder()
+    public ProductServiceClient(WebClient.Builder webClientBuilder,
+                                CircuitBreaker productServiceCircuitBreaker,
+                                Bulkhead productServiceBulkhead,
+                                MeterRegistry meterRegistry,
+                                @Value("${product-service.url}") String productServiceUrl,
+                                @Value("${product-service.client-cache.maximum-size:1000}") long productCacheSize,
+                                @Value("${product-service.resilience.timeout:PT3S}") Duration callTimeout,
+                                @Value("${product-service.resilience.stale-fallback-max-age:PT1H}") Duration staleFallbackMaxAge) {
+        this.webClient = webClientBuilder
                 .baseUrl(productServiceUrl)
                 .build();
+        this.circuitBreaker = productServiceCircuitBreaker;
+        this.bulkhead = productServiceBulkhead;
+        this.callTimeout = callTimeout;
+        this.staleFallbackMaxAge = staleFallbackMaxAge;
+        this.fallbackHits = Counter.builder("product.client.fallback")
+                .description("Product lookups answered from the last known product while product-service was unavailable")
+                .register(meterRegistry);
+        this.productCache = Caffeine.newBuilder()
+                .maximumSize(productCacheSize)
+                .build();
     }
     
     public Mono<ProductDto> getProductById(Long productId) {
-        return webClient.get()
+        CachedProduct cached = productCache.getIfPresent(productId);
+        Mono<ProductDto> lookup = webClient.get()
                 .uri("/{id}", productId)
+                .headers(headers -> {
+                    if (cached != null) {
+                        headers.setIfNoneMatch(cached.etag);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (cached != null && response.statusCode() == HttpStatus.NOT_MODIFIED) {
+                        productCache.put(productId, new CachedProduct(cached.etag, cached.product));
+                        return response.releaseBody().thenReturn(cached.product);
+                    }
+                    if (response.statusCode().is2xxSuccessful()) {
+                        String etag = response.headers().asHttpHeaders().getETag();
+                        return response.bodyToMono(ProductDto.class)
+                                .doOnNext(product -> {
+                                    if (etag != null) {
+                                        productCache.put(productId, new CachedProduct(etag, product));
+                                    }
+                                });
+                    }
+                    // A 5xx says nothing about the product, so the last known copy stays for the fallback
+                    if (response.statusCode().is4xxClientError()) {
+                        productCache.invalidate(productId);
+                    }
+                    return response.createError();
+                });
+        return guarded(lookup)
+                .onErrorResume(e -> e instanceof ProductServiceUnavailableException
+                                || (e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError()),
+                        e -> staleProduct(productId, e));
+    }
+    
+    // Last known copy of a product that product-service confirmed or sent recently enough; name and price may
+    // have changed since, but stock is always checked again by the reservation
+    private Mono<ProductDto> staleProduct(Long productId, Throwable error) {
+        CachedProduct cached = productCache.getIfPresent(productId);
+        if (cached == null || cached.validatedAt.isBefore(Instant.now().minus(staleFallbackMaxAge))) {
+            return Mono.error(error);
+        }
+        fallbackHits.increment();
+        logger.debug("Serving last known product {} while product-service is unavailable: {}", productId, error.getMessage());
+        return Mono.just(cached.product);
+    }
+    
+    // The body is decoded one product at a time as it arrives
+    // The timeout and the bulkhead cover getting the response headers, not reading the whole snapshot
+    public Mono<ResponseEntity<Flux<ProductDto>>> streamProducts() {
+        return guarded(webClient.get()
+                .uri("/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .toEntityFlux(ProductDto.class));
+    }
+    
+    public Mono<List<ProductEventDto>> getProductEvents(long after, int limit) {
+        return guarded(webClient.get()
+                .uri("/events?after={after}&limit={limit}", after, limit)
+                .retrieve()
+                .bodyToFlux(ProductEventDto.class)
+                .collectList());
+    }
+    
+    // The reservation id is chosen by the caller, so it can release a reservation whose call timed out
+    public Mono<StockReservationDto> reserveProducts(String reservationId, List<OrderItemRequestDto> items) {
+        return guarded(webClient.post()
+                .uri("/reserve")
+                .bodyValue(new StockReservationRequestDto(reservationId, items))
                 .retrieve()
-                .bodyToMono(ProductDto.class);
+                .bodyToMono(StockReservationDto.class));
+    }
+    
+    public Mono<Void> confirmReservation(String reservationId) {
+        return webClient.post()
+                .uri("/reservations/{reservationId}/confirm", reservationId)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
     }
     
-    public Mono<Boolean> reserveStock(Long productId, Integer quantity) {
+    public Mono<Void> releaseReservation(String reservationId) {
         return webClient.post()
-                .uri("/{id}/reserve?quantity={quantity}", productId, quantity)
+                .uri("/reservations/{reservationId}/release", reservationId)
                 .retrieve()
                 .toBodilessEntity()
-                .map(response -> response.getStatusCode().is2xxSuccessful())
-                .onErrorReturn(false);
+                .then();
+    }
+    
+    // The breaker sees the call's own outcome; errors that mean product-service could not be asked at all
+    // reach callers as ProductServiceUnavailableException, while its HTTP error responses pass through as they are
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return call.timeout(callTimeout)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(ProductServiceClient::isUnavailable, ProductServiceUnavailableException::new);
+    }
+    
+    private static boolean isUnavailable(Throwable e) {
+        return e instanceof CallNotPermittedException
+                || e instanceof BulkheadFullException
+                || e instanceof TimeoutException
+                || e instanceof WebClientRequestException;
+    }
+    
+    private static class CachedProduct {
+        
+        final String etag;
+        final ProductDto product;
+        final Instant validatedAt;
+        
+        CachedProduct(String etag, ProductDto product) {
+            this.etag = etag;
+            this.product = product;
+            this.validatedAt = Instant.now();
+        }
     }
 }
@@ -0,0 +1,10 @@
+package com.example.orderservice.client;
+
+// product-service could not be asked: its circuit breaker is open, too many calls are already in flight,
+// or the call timed out or found no connection
+public class ProductServiceUnavailableException extends RuntimeException {
+    
+    public ProductServiceUnavailableException(Throwable cause) {
+        super("Product service unavailable: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.orderservice.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+// Fault isolation for calls to product-service. State and call metrics are published as
+// resilience4j.circuitbreaker.* and resilience4j.bulkhead.*, turned away calls as product.client.rejected.
+@Configuration
+public class ResilienceConfig {
+    
+    public static final String PRODUCT_SERVICE = "product-service";
+    
+    // Only a product-service that cannot answer in time counts against the breaker; 4xx answers such as
+    // insufficient stock are healthy responses
+    @Bean
+    public CircuitBreaker productServiceCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${product-service.resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${product-service.resilience.circuit-breaker.slow-call-duration:PT2S}") Duration slowCallDuration,
+            @Value("${product-service.resilience.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${product-service.resilience.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${product-service.resilience.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${product-service.resilience.circuit-breaker.open-duration:PT10S}") Duration openDuration,
+            @Value("${product-service.resilience.circuit-breaker.half-open-calls:5}") int halfOpenCalls) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(ResilienceConfig::isProductServiceFailure)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(PRODUCT_SERVICE);
+        Counter rejected = rejectedCounter(meterRegistry, "circuit-open");
+        circuitBreaker.getEventPublisher().onCallNotPermitted(event -> rejected.increment());
+        return circuitBreaker;
+    }
+    
+    // Calls beyond the limit are turned away at once instead of queueing for a connection
+    @Bean
+    public Bulkhead productServiceBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${product-service.resilience.bulkhead.max-concurrent-calls:50}") int maxConcurrentCalls) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        
+        Bulkhead bulkhead = registry.bulkhead(PRODUCT_SERVICE);
+        Counter rejected = rejectedCounter(meterRegistry, "bulkhead-full");
+        bulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+        return bulkhead;
+    }
+    
+    private static boolean isProductServiceFailure(Throwable e) {
+        return e instanceof TimeoutException
+                || e instanceof WebClientRequestException
+                || (e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError());
+    }
+    
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("product.client.rejected")
+                .description("Calls to product-service turned away without being sent")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
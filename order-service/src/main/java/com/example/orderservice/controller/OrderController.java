@@ -1,8 +1,18 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.dto.CustomerOrderHistoryDto;
+import com.example.orderservice.dto.OrderPageDto;
 import com.example.orderservice.dto.OrderRequestDto;
+import com.example.orderservice.dto.OrderRollupDto;
+import com.example.orderservice.dto.OrderSummaryDto;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.RollupGranularity;
+import com.example.orderservice.service.CustomerOrderHistory;
+import com.example.orderservice.service.OrderAwaitingReservationException;
+import com.example.orderservice.service.OrderIntake;
+import com.example.orderservice.service.OrderRollups;
 import com.example.orderservice.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,37 +23,110 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = OrderController.NEXT_CURSOR_HEADER)
 @Tag(name = "Order Management", description = "APIs for managing orders in the e-commerce platform")
 public class OrderController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final OrderService orderService;
+    // Only present in async mode
+    private final Optional<OrderIntake> orderIntake;
+    private final CustomerOrderHistory customerOrderHistory;
+    private final OrderRollups orderRollups;
+    private final boolean reactiveCreation;
+    private final Duration intakeRetryAfter;
+    private final Duration productServiceRetryAfter;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, Optional<OrderIntake> orderIntake,
+                           CustomerOrderHistory customerOrderHistory, OrderRollups orderRollups,
+                           @Value("${order.creation.mode:blocking}") String creationMode,
+                           @Value("${order.intake.retry-after:PT5S}") Duration intakeRetryAfter,
+                           @Value("${product-service.resilience.circuit-breaker.open-duration:PT10S}") Duration productServiceRetryAfter) {
         this.orderService = orderService;
+        this.orderIntake = orderIntake;
+        this.customerOrderHistory = customerOrderHistory;
+        this.orderRollups = orderRollups;
+        this.reactiveCreation = "reactive".equalsIgnoreCase(creationMode);
+        this.intakeRetryAfter = intakeRetryAfter;
+        this.productServiceRetryAfter = productServiceRetryAfter;
     }
 
     @GetMapping
-    @Operation(summary = "Get all orders", description = "Retrieve a list of all orders in the system")
+    @Operation(summary = "Get all orders",
+            description = "Retrieve orders in id order; the next page's cursor is returned in the X-Next-Cursor header")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved orders",
             content = @Content(mediaType = "application/json",
                 schema = @Schema(implementation = Order.class))),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getAllOrders(
+            @Parameter(description = "Return orders with an id greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of orders to return (capped at 100)")
+            @RequestParam(defaultValue = "50") int size) {
+        return pageResponse(orderService.getOrdersPage(after, size));
+    }
+
+    @GetMapping("/summaries")
+    @Operation(summary = "Get order summaries",
+            description = "Retrieve orders without their items, in id order; the next page's cursor is returned in the X-Next-Cursor header")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved order summaries"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<OrderSummaryDto>> getOrderSummaries(
+            @Parameter(description = "Only return orders with this status")
+            @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "Return orders with an id greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of orders to return (capped at 100)")
+            @RequestParam(defaultValue = "50") int size) {
+        return pageResponse(orderService.getOrderSummariesPage(status, after, size));
+    }
+
+    @GetMapping("/analytics")
+    @Operation(summary = "Get order analytics",
+            description = "Order count, revenue and item count per time bucket and status, for orders placed in [from, to). "
+                    + "Served from pre-aggregated rollups, which trail new orders by a few seconds")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved order analytics"),
+        @ApiResponse(responseCode = "400", description = "Invalid range, or more buckets than allowed"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<OrderRollupDto>> getOrderAnalytics(
+            @Parameter(description = "Bucket size: MINUTE, HOUR or DAY")
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @Parameter(description = "Start of the range (ISO date-time), rounded down to its bucket", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the range (ISO date-time), exclusive", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only buckets of orders in this status")
+            @RequestParam(required = false) OrderStatus status) {
+        try {
+            return ResponseEntity.ok(orderRollups.getRollups(granularity, from, to, status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -62,28 +145,68 @@ public class OrderController {
     }
 
     @PostMapping
-    @Operation(summary = "Create a new order", description = "Create a new order in the system")
+    @Operation(summary = "Create a new order",
+            description = "Create a new order in the system. In async mode the order is stored as PENDING and answered with 202; "
+                    + "poll the Location URL until its status becomes CONFIRMED or CANCELLED")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "201", description = "Order created successfully"),
+        @ApiResponse(responseCode = "201", description = "Order created successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Order.class))),
+        @ApiResponse(responseCode = "202", description = "Order accepted for processing (async mode)",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Order.class))),
         @ApiResponse(responseCode = "400", description = "Invalid input data"),
+        @ApiResponse(responseCode = "503", description = "Order intake is full or product-service is unavailable, retry later"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Order> createOrder(
+    // A ResponseEntity, or in reactive mode a DeferredResult of one: only that mode goes through async
+    // servlet dispatch, the other modes answer on the request thread
+    public Object createOrder(
             @Parameter(description = "Order request object", required = true)
             @Valid @RequestBody OrderRequestDto orderRequest) {
+        if (reactiveCreation) {
+            return createOrderReactive(orderRequest);
+        }
         try {
-            Order createdOrder = orderService.createOrder(orderRequest);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+            if (orderIntake.isPresent()) {
+                return orderIntake.get().accept(orderRequest)
+                        .<ResponseEntity<Order>>map(order -> ResponseEntity.accepted()
+                                .location(URI.create("/api/orders/" + order.getId()))
+                                .body(order))
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(intakeRetryAfter.toSeconds()))
+                                .build());
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(orderRequest));
+        } catch (ProductServiceUnavailableException e) {
+            return productServiceUnavailable();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // The servlet thread is released while product-service reserves stock
+    private DeferredResult<ResponseEntity<Order>> createOrderReactive(OrderRequestDto orderRequest) {
+        DeferredResult<ResponseEntity<Order>> result = new DeferredResult<>();
+        orderService.createOrderReactive(orderRequest)
+                .map(order -> ResponseEntity.status(HttpStatus.CREATED).body(order))
+                .onErrorResume(ProductServiceUnavailableException.class, e -> Mono.just(productServiceUnavailable()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.badRequest().build()))
+                .subscribe(result::setResult, result::setErrorResult);
+        return result;
+    }
+
+    // Fails fast while product-service's circuit breaker is open; worth retrying once it may have closed
+    private <T> ResponseEntity<T> productServiceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(productServiceRetryAfter.toSeconds()))
+                .build();
+    }
+
     @PutMapping("/{id}/status")
     @Operation(summary = "Update order status", description = "Update the status of an existing order")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Order status updated successfully"),
         @ApiResponse(responseCode = "404", description = "Order not found"),
+        @ApiResponse(responseCode = "409", description = "Order is still awaiting its stock reservation (async creation mode); retry once it is settled"),
         @ApiResponse(responseCode = "400", description = "Invalid status"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -92,7 +215,12 @@ public class OrderController {
             @PathVariable Long id,
             @Parameter(description = "New order status", required = true)
             @RequestParam OrderStatus status) {
-        Optional<Order> updatedOrder = orderService.updateOrderStatus(id, status);
+        Optional<Order> updatedOrder;
+        try {
+            updatedOrder = orderService.updateOrderStatus(id, status);
+        } catch (OrderAwaitingReservationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         return updatedOrder.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -112,28 +240,61 @@ public class OrderController {
     }
 
     @GetMapping("/customer/{email}")
-    @Operation(summary = "Get orders by customer email", description = "Retrieve all orders for a specific customer")
+    @Operation(summary = "Get orders by customer email", description = "Retrieve a page of orders for a specific customer, in id order")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved orders by customer email"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<List<Order>> getOrdersByCustomerEmail(
             @Parameter(description = "Customer email to filter by", required = true)
-            @PathVariable String email) {
-        List<Order> orders = orderService.getOrdersByCustomerEmail(email);
-        return ResponseEntity.ok(orders);
+            @PathVariable String email,
+            @Parameter(description = "Return orders with an id greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of orders to return (capped at 100)")
+            @RequestParam(defaultValue = "50") int size) {
+        return pageResponse(orderService.getOrdersByCustomerEmail(email, after, size));
+    }
+
+    @GetMapping("/customer/{email}/history")
+    @Operation(summary = "Get a customer's order history",
+            description = "Retrieve a customer's order counts and totals with a page of their orders, newest first, " +
+                    "from the order history read model; pass nextCursor as \"before\" for the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the customer's order history"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CustomerOrderHistoryDto> getCustomerOrderHistory(
+            @Parameter(description = "Customer email", required = true)
+            @PathVariable String email,
+            @Parameter(description = "Return orders with an id less than this cursor")
+            @RequestParam(required = false) Long before,
+            @Parameter(description = "Maximum number of orders to return (capped at 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(customerOrderHistory.getHistory(email, before, size));
     }
 
     @GetMapping("/status/{status}")
-    @Operation(summary = "Get orders by status", description = "Retrieve all orders with a specific status")
+    @Operation(summary = "Get orders by status", description = "Retrieve a page of orders with a specific status, in id order")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved orders by status"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<List<Order>> getOrdersByStatus(
             @Parameter(description = "Order status to filter by", required = true)
-            @PathVariable String status) {
-        List<Order> orders = orderService.getOrdersByStatus(OrderStatus.valueOf(status.toUpperCase()));
-        return ResponseEntity.ok(orders);
+            @PathVariable String status,
+            @Parameter(description = "Return orders with an id greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of orders to return (capped at 100)")
+            @RequestParam(defaultValue = "50") int size) {
+        return pageResponse(orderService.getOrdersByStatus(OrderStatus.valueOf(status.toUpperCase()), after, size));
+    }
+
+    // List endpoints keep returning plain arrays; the id to pass as "after" for the next page travels in a header
+    private static <T> ResponseEntity<List<T>> pageResponse(OrderPageDto<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
     }
 }
@@ -0,0 +1,104 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A customer's order counts and totals with one page of their orders, newest first
+public class CustomerOrderHistoryDto {
+    
+    private String customerEmail;
+    private long orderCount;
+    private long cancelledCount;
+    private BigDecimal totalSpent;
+    private LocalDateTime lastOrderDate;
+    private List<OrderSummaryDto> orders;
+    
+    // Id to pass as "before" for the next (older) page; null on the last page
+    private Long nextCursor;
+    
+    // Default constructor
+    public CustomerOrderHistoryDto() {}
+    
+    // Constructor with fields
+    public CustomerOrderHistoryDto(String customerEmail, long orderCount, long cancelledCount, BigDecimal totalSpent,
+                                   LocalDateTime lastOrderDate, List<OrderSummaryDto> orders, Long nextCursor) {
+        this.customerEmail = customerEmail;
+        this.orderCount = orderCount;
+        this.cancelledCount = cancelledCount;
+        this.totalSpent = totalSpent;
+        this.lastOrderDate = lastOrderDate;
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+    
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+    
+    public void setCancelledCount(long cancelledCount) {
+        this.cancelledCount = cancelledCount;
+    }
+    
+    public BigDecimal getTotalSpent() {
+        return totalSpent;
+    }
+    
+    public void setTotalSpent(BigDecimal totalSpent) {
+        this.totalSpent = totalSpent;
+    }
+    
+    public LocalDateTime getLastOrderDate() {
+        return lastOrderDate;
+    }
+    
+    public void setLastOrderDate(LocalDateTime lastOrderDate) {
+        this.lastOrderDate = lastOrderDate;
+    }
+    
+    public List<OrderSummaryDto> getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(List<OrderSummaryDto> orders) {
+        this.orders = orders;
+    }
+    
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    @Override
+    public String toString() {
+        return "CustomerOrderHistoryDto{" +
+                "customerEmail='" + customerEmail + '\'' +
+                ", orderCount=" + orderCount +
+                ", cancelledCount=" + cancelledCount +
+                ", totalSpent=" + totalSpent +
+                ", lastOrderDate=" + lastOrderDate +
+                ", orders=" + orders +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
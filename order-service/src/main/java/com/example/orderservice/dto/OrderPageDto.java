@@ -0,0 +1,45 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+public class OrderPageDto<T> {
+    
+    private List<T> items;
+    
+    // Id to pass as "after" for the next page; null on the last page
+    private Long nextCursor;
+    
+    // Default constructor
+    public OrderPageDto() {}
+    
+    // Constructor with fields
+    public OrderPageDto(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderPageDto{" +
+                "items=" + items +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.OrderStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Orders placed in one time bucket that are currently in one status
+public class OrderRollupDto {
+    
+    private LocalDateTime bucketStart;
+    private OrderStatus status;
+    private long orderCount;
+    private BigDecimal revenue;
+    private long itemCount;
+    
+    // Default constructor
+    public OrderRollupDto() {}
+    
+    // Constructor with fields
+    public OrderRollupDto(LocalDateTime bucketStart, OrderStatus status, long orderCount, BigDecimal revenue, long itemCount) {
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.itemCount = itemCount;
+    }
+    
+    // Getters and Setters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public long getItemCount() {
+        return itemCount;
+    }
+    
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderRollupDto{" +
+                "bucketStart=" + bucketStart +
+                ", status=" + status +
+                ", orderCount=" + orderCount +
+                ", revenue=" + revenue +
+                ", itemCount=" + itemCount +
+                '}';
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.OrderStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// An order without its items, selected directly as columns for listings
+public class OrderSummaryDto {
+    
+    private Long id;
+    private String customerName;
+    private String customerEmail;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private Integer itemCount;
+    
+    // Default constructor
+    public OrderSummaryDto() {}
+    
+    // Constructor with fields
+    public OrderSummaryDto(Long id, String customerName, String customerEmail, LocalDateTime orderDate,
+                           OrderStatus status, BigDecimal totalAmount, Integer itemCount) {
+        this.id = id;
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.itemCount = itemCount;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getCustomerName() {
+        return customerName;
+    }
+    
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+    
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+    
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+    
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+    
+    public void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public Integer getItemCount() {
+        return itemCount;
+    }
+    
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderSummaryDto{" +
+                "id=" + id +
+                ", customerName='" + customerName + '\'' +
+                ", customerEmail='" + customerEmail + '\'' +
+                ", orderDate=" + orderDate +
+                ", status=" + status +
+                ", totalAmount=" + totalAmount +
+                ", itemCount=" + itemCount +
+                '}';
+    }
+}
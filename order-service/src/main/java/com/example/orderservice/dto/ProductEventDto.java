@@ -0,0 +1,88 @@
+package com.example.orderservice.dto;
+
+import java.time.LocalDateTime;
+
+public class ProductEventDto {
+    
+    private Long offset;
+    private Long productId;
+    // CREATED, UPDATED, STOCK_CHANGED or DELETED
+    private String type;
+    private ProductDto product;
+    private Integer stockQuantity;
+    private LocalDateTime occurredAt;
+    
+    // Default constructor
+    public ProductEventDto() {}
+    
+    // Constructor with fields
+    public ProductEventDto(Long offset, Long productId, String type, ProductDto product,
+                           Integer stockQuantity, LocalDateTime occurredAt) {
+        this.offset = offset;
+        this.productId = productId;
+        this.type = type;
+        this.product = product;
+        this.stockQuantity = stockQuantity;
+        this.occurredAt = occurredAt;
+    }
+    
+    // Getters and Setters
+    public Long getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public ProductDto getProduct() {
+        return product;
+    }
+    
+    public void setProduct(ProductDto product) {
+        this.product = product;
+    }
+    
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+    
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductEventDto{" +
+                "offset=" + offset +
+                ", productId=" + productId +
+                ", type='" + type + '\'' +
+                ", stockQuantity=" + stockQuantity +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.orderservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class StockReservationDto {
+    
+    private String reservationId;
+    private LocalDateTime expiresAt;
+    private List<ProductDto> products;
+    
+    // Default constructor
+    public StockReservationDto() {}
+    
+    // Constructor with fields
+    public StockReservationDto(String reservationId, LocalDateTime expiresAt, List<ProductDto> products) {
+        this.reservationId = reservationId;
+        this.expiresAt = expiresAt;
+        this.products = products;
+    }
+    
+    // Getters and Setters
+    public String getReservationId() {
+        return reservationId;
+    }
+    
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public List<ProductDto> getProducts() {
+        return products;
+    }
+    
+    public void setProducts(List<ProductDto> products) {
+        this.products = products;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockReservationDto{" +
+                "reservationId='" + reservationId + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", products=" + products +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+public class StockReservationRequestDto {
+    
+    private List<OrderItemRequestDto> items;
+    
+    private String reservationId;
+    
+    // Default constructor
+    public StockReservationRequestDto() {}
+    
+    // Constructor with fields
+    public StockReservationRequestDto(List<OrderItemRequestDto> items) {
+        this.items = items;
+    }
+    
+    public StockReservationRequestDto(String reservationId, List<OrderItemRequestDto> items) {
+        this.reservationId = reservationId;
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public List<OrderItemRequestDto> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<OrderItemRequestDto> items) {
+        this.items = items;
+    }
+    
+    public String getReservationId() {
+        return reservationId;
+    }
+    
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockReservationRequestDto{" +
+                "items=" + items +
+                ", reservationId='" + reservationId + '\'' +
+                '}';
+    }
+}
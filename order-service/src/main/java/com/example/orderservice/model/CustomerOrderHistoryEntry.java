@@ -0,0 +1,113 @@
+package com.example.orderservice.model;
+
+import com.example.orderservice.dto.OrderSummaryDto;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One row per order in the per-customer order history read model, kept by CustomerOrderHistory.
+// The (customer_email, order_id) index serves a customer's newest-first page as a single range scan.
+@Entity
+@Table(name = "customer_order_history", indexes = {
+    @Index(name = "idx_customer_order_history_email_order", columnList = "customer_email, order_id")
+})
+public class CustomerOrderHistoryEntry {
+    
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+    
+    @Column(name = "customer_email", nullable = false)
+    private String customerEmail;
+    
+    @Column(nullable = false)
+    private String customerName;
+    
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+    
+    @Column(nullable = false)
+    private int itemCount;
+    
+    // Default constructor
+    public CustomerOrderHistoryEntry() {}
+    
+    // Constructor with fields
+    public CustomerOrderHistoryEntry(OrderSummaryDto order) {
+        this.orderId = order.getId();
+        this.customerEmail = order.getCustomerEmail();
+        this.customerName = order.getCustomerName();
+        this.orderDate = order.getOrderDate();
+        this.status = order.getStatus();
+        this.totalAmount = order.getTotalAmount();
+        this.itemCount = order.getItemCount();
+    }
+    
+    public OrderSummaryDto toSummary() {
+        return new OrderSummaryDto(orderId, customerName, customerEmail, orderDate, status, totalAmount, itemCount);
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+    
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+    
+    public String getCustomerName() {
+        return customerName;
+    }
+    
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+    
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+    
+    public void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public int getItemCount() {
+        return itemCount;
+    }
+    
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running counts and totals per customer for the order history read model. Only ever changed by relative
+// updates (see CustomerOrderStatsRepository.upsert and add), so concurrent orders of one customer do not lose counts.
+@Entity
+@Table(name = "customer_order_stats")
+public class CustomerOrderStats {
+    
+    @Id
+    @Column(name = "customer_email")
+    private String customerEmail;
+    
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+    
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+    
+    // Sum of the totals of all orders that are not cancelled
+    @Column(name = "total_spent", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalSpent;
+    
+    @Column(name = "last_order_date")
+    private LocalDateTime lastOrderDate;
+    
+    // Default constructor
+    public CustomerOrderStats() {}
+    
+    // Getters and Setters
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+    
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+    
+    public void setCancelledCount(long cancelledCount) {
+        this.cancelledCount = cancelledCount;
+    }
+    
+    public BigDecimal getTotalSpent() {
+        return totalSpent;
+    }
+    
+    public void setTotalSpent(BigDecimal totalSpent) {
+        this.totalSpent = totalSpent;
+    }
+    
+    public LocalDateTime getLastOrderDate() {
+        return lastOrderDate;
+    }
+    
+    public void setLastOrderDate(LocalDateTime lastOrderDate) {
+        this.lastOrderDate = lastOrderDate;
+    }
+}
@@ -5,12 +5,16 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_customer_email", columnList = "customer_email, id"),
+    @Index(name = "idx_orders_awaiting_reservation", columnList = "awaiting_reservation, id")
+})
 public class Order {
     
     @Id
@@ -22,7 +26,7 @@ public class Order {
     private String customerName;
     
     @NotBlank(message = "Customer email is required")
-    @Column(nullable = false)
+    @Column(name = "customer_email", nullable = false)
     private String customerEmail;
     
     @Column(nullable = false)
@@ -37,13 +41,19 @@ public class Order {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
     
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Loaded on demand, for up to a full page of orders per query; single-order reads fetch them with a join
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JsonManagedReference
     private List<OrderItem> orderItems;
     
     @Column(length = 500)
     private String shippingAddress;
     
+    // Set while an order taken in by async intake still waits for its stock reservation
+    @Column(name = "awaiting_reservation", nullable = false)
+    private boolean awaitingReservation;
+    
     // Default constructor
     public Order() {
         this.orderDate = LocalDateTime.now();
@@ -123,6 +133,14 @@ public class Order {
         this.shippingAddress = shippingAddress;
     }
     
+    public boolean isAwaitingReservation() {
+        return awaitingReservation;
+    }
+    
+    public void setAwaitingReservation(boolean awaitingReservation) {
+        this.awaitingReservation = awaitingReservation;
+    }
+    
     @Override
     public String toString() {
         return "Order{" +
@@ -133,6 +151,7 @@ public class Order {
                 ", status=" + status +
                 ", totalAmount=" + totalAmount +
                 ", shippingAddress='" + shippingAddress + '\'' +
+                ", awaitingReservation=" + awaitingReservation +
                 '}';
     }
 }
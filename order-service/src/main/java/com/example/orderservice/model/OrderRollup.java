@@ -0,0 +1,112 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Orders placed within one time bucket that are currently in one status, with their revenue and item count.
+// Kept by OrderRollups from the deltas that order writes leave behind.
+@Entity
+@Table(name = "order_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_rollups_bucket", columnNames = {"granularity", "bucket_start", "status"})
+})
+public class OrderRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+    
+    @Column(nullable = false)
+    private long itemCount;
+    
+    // Default constructor
+    public OrderRollup() {}
+    
+    // Constructor with fields
+    public OrderRollup(RollupGranularity granularity, LocalDateTime bucketStart, OrderStatus status) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.revenue = BigDecimal.ZERO;
+    }
+    
+    public void add(long orderCount, BigDecimal revenue, long itemCount) {
+        this.orderCount += orderCount;
+        this.revenue = this.revenue.add(revenue);
+        this.itemCount += itemCount;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public long getItemCount() {
+        return itemCount;
+    }
+    
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+
+// Progress marker of the order rollup backfill: a single row. Orders up to upToOrderId were stored before
+// orders recorded their own rollup deltas; those up to lastProcessedOrderId have been queued as deltas.
+// Advanced in the same transaction as the deltas of each batch, so a restarted backfill resumes after it.
+@Entity
+@Table(name = "order_rollup_backfill")
+public class OrderRollupBackfill {
+    
+    public static final long ID = 1L;
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "up_to_order_id", nullable = false)
+    private long upToOrderId;
+    
+    @Column(name = "last_processed_order_id", nullable = false)
+    private long lastProcessedOrderId;
+    
+    // Default constructor
+    public OrderRollupBackfill() {}
+    
+    // Constructor with fields
+    public OrderRollupBackfill(long upToOrderId, long lastProcessedOrderId) {
+        this.id = ID;
+        this.upToOrderId = upToOrderId;
+        this.lastProcessedOrderId = lastProcessedOrderId;
+    }
+    
+    public boolean isComplete() {
+        return lastProcessedOrderId >= upToOrderId;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public long getUpToOrderId() {
+        return upToOrderId;
+    }
+    
+    public void setUpToOrderId(long upToOrderId) {
+        this.upToOrderId = upToOrderId;
+    }
+    
+    public long getLastProcessedOrderId() {
+        return lastProcessedOrderId;
+    }
+    
+    public void setLastProcessedOrderId(long lastProcessedOrderId) {
+        this.lastProcessedOrderId = lastProcessedOrderId;
+    }
+}
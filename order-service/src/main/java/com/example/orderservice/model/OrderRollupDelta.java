@@ -0,0 +1,95 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A change to the order rollups, written in the same transaction as the order change it comes from.
+// Order writes only ever insert these, so they never wait on each other for a busy bucket's rollup row;
+// OrderRollups folds them into the rollups and deletes them.
+@Entity
+@Table(name = "order_rollup_deltas")
+public class OrderRollupDelta {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Minute the orders were placed in; hour and day buckets are derived from it
+    @Column(nullable = false)
+    private LocalDateTime minuteStart;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+    
+    @Column(nullable = false)
+    private long itemCount;
+    
+    // Default constructor
+    public OrderRollupDelta() {}
+    
+    // Constructor with fields
+    public OrderRollupDelta(LocalDateTime minuteStart, OrderStatus status, long orderCount, BigDecimal revenue, long itemCount) {
+        this.minuteStart = minuteStart;
+        this.status = status;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.itemCount = itemCount;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDateTime getMinuteStart() {
+        return minuteStart;
+    }
+    
+    public void setMinuteStart(LocalDateTime minuteStart) {
+        this.minuteStart = minuteStart;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public long getItemCount() {
+        return itemCount;
+    }
+    
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+}
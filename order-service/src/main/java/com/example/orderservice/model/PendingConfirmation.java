@@ -0,0 +1,71 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A stock reservation an order relies on that product-service has not confirmed yet. Written in the same
+// transaction as the order and removed once the confirm succeeds, so a confirm that fails is retried
+// (see OrderService.retryPendingConfirmations) instead of being left for the reservation to expire.
+@Entity
+@Table(name = "pending_confirmations", indexes = {
+    @Index(name = "idx_pending_confirmations_reservation_id", columnList = "reservation_id"),
+    @Index(name = "idx_pending_confirmations_order_id", columnList = "order_id")
+})
+public class PendingConfirmation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "reservation_id", nullable = false, length = 36)
+    private String reservationId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Default constructor
+    public PendingConfirmation() {}
+    
+    // Constructor with fields
+    public PendingConfirmation(Long orderId, String reservationId) {
+        this.orderId = orderId;
+        this.reservationId = reservationId;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public String getReservationId() {
+        return reservationId;
+    }
+    
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
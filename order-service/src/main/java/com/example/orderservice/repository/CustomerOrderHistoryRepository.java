@@ -0,0 +1,15 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.CustomerOrderHistoryEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CustomerOrderHistoryRepository extends JpaRepository<CustomerOrderHistoryEntry, Long> {
+    
+    // Newest first: order ids grow with time, so the keyset runs backwards over the (customer_email, order_id) index
+    List<CustomerOrderHistoryEntry> findByCustomerEmailAndOrderIdLessThanOrderByOrderIdDesc(String customerEmail, Long before, Limit limit);
+}
@@ -0,0 +1,40 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.CustomerOrderStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface CustomerOrderStatsRepository extends JpaRepository<CustomerOrderStats, String> {
+    
+    // Creates the customer's row or applies the change to it in one statement, inside the caller's transaction;
+    // a concurrent first order of the same customer waits on the row instead of failing on the primary key.
+    // MySQL syntax; the H2 database used outside the docker profile runs in MySQL mode for it.
+    @Modifying
+    @Query(value = "INSERT INTO customer_order_stats " +
+                   "(customer_email, order_count, cancelled_count, total_spent, last_order_date) " +
+                   "VALUES (:email, :orders, :cancelled, :spent, :orderDate) " +
+                   "ON DUPLICATE KEY UPDATE order_count = order_count + :orders, " +
+                   "cancelled_count = cancelled_count + :cancelled, total_spent = total_spent + :spent, " +
+                   "last_order_date = CASE WHEN last_order_date IS NULL OR last_order_date < :orderDate " +
+                   "THEN :orderDate ELSE last_order_date END", nativeQuery = true)
+    int upsert(@Param("email") String customerEmail, @Param("orders") long orders, @Param("cancelled") long cancelled,
+               @Param("spent") BigDecimal spent, @Param("orderDate") LocalDateTime orderDate);
+    
+    // Applies a change relative to the stored values; returns 0 when the customer has no row yet.
+    // A null orderDate leaves the last order date as it is.
+    @Modifying
+    @Query("UPDATE CustomerOrderStats s SET s.orderCount = s.orderCount + :orders, " +
+           "s.cancelledCount = s.cancelledCount + :cancelled, s.totalSpent = s.totalSpent + :spent, " +
+           "s.lastOrderDate = CASE WHEN s.lastOrderDate IS NULL OR s.lastOrderDate < :orderDate " +
+           "THEN :orderDate ELSE s.lastOrderDate END " +
+           "WHERE s.customerEmail = :email")
+    int add(@Param("email") String customerEmail, @Param("orders") long orders, @Param("cancelled") long cancelled,
+            @Param("spent") BigDecimal spent, @Param("orderDate") LocalDateTime orderDate);
+}
@@ -1,21 +1,53 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.OrderSummaryDto;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
-    List<Order> findByCustomerEmail(String customerEmail);
+    // Order and items in one statement
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(Long id);
     
-    List<Order> findByStatus(OrderStatus status);
+    // Keyset pages in id order; items are batch-loaded afterwards, since a fetch join would defeat the limit
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+    
+    List<Order> findByCustomerEmailAndIdGreaterThanOrderByIdAsc(String customerEmail, Long after, Limit limit);
+    
+    List<Order> findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus status, Long after, Limit limit);
+    
+    List<Order> findByCustomerNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String customerName, Long after, Limit limit);
+    
+    @Query("SELECT new com.example.orderservice.dto.OrderSummaryDto(o.id, o.customerName, o.customerEmail, " +
+           "o.orderDate, o.status, o.totalAmount, SIZE(o.orderItems)) " +
+           "FROM Order o WHERE o.id > :after AND (:status IS NULL OR o.status = :status) ORDER BY o.id ASC")
+    List<OrderSummaryDto> findSummaries(@Param("status") OrderStatus status, @Param("after") Long after, Limit limit);
     
     List<Order> findByOrderDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     
-    List<Order> findByCustomerNameContainingIgnoreCase(String customerName);
+    Optional<Order> findFirstByOrderByIdDesc();
+    
+    // Async intake: orders still waiting for their stock reservation since before the given time
+    List<Order> findByAwaitingReservationTrueAndOrderDateBeforeOrderByIdAsc(LocalDateTime before, Limit limit);
+    
+    // Settles an order taken in by async intake; returns 0 when another worker already settled it
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.awaitingReservation = false " +
+           "WHERE o.id = :id AND o.awaitingReservation = true")
+    int settleAwaitingOrder(@Param("id") Long id, @Param("status") OrderStatus status);
 }
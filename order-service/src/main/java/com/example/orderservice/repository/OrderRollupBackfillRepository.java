@@ -0,0 +1,17 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.OrderRollupBackfill;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderRollupBackfillRepository extends JpaRepository<OrderRollupBackfill, Long> {
+    
+    // Locked, so instances starting together take turns on the batches instead of queueing one twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OrderRollupBackfill> findWithLockById(Long id);
+}
@@ -0,0 +1,18 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.OrderRollupDelta;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderRollupDeltaRepository extends JpaRepository<OrderRollupDelta, Long> {
+    
+    // Locked, so a second instance folding at the same time waits and then finds these deltas gone
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OrderRollupDelta> findByOrderByIdAsc(Limit limit);
+}
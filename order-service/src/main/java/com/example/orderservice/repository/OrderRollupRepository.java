@@ -0,0 +1,39 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.OrderRollupDto;
+import com.example.orderservice.model.OrderRollup;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long> {
+    
+    @Query("SELECT new com.example.orderservice.dto.OrderRollupDto(r.bucketStart, r.status, r.orderCount, r.revenue, r.itemCount) " +
+           "FROM OrderRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:status IS NULL OR r.status = :status) ORDER BY r.bucketStart ASC, r.status ASC")
+    List<OrderRollupDto> findBuckets(@Param("granularity") RollupGranularity granularity,
+                                     @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                     @Param("status") OrderStatus status);
+    
+    // Applies a change relative to the stored values; returns 0 when the bucket has no row yet
+    @Modifying
+    @Query("UPDATE OrderRollup r SET r.orderCount = r.orderCount + :orders, r.revenue = r.revenue + :revenue, " +
+           "r.itemCount = r.itemCount + :items " +
+           "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart AND r.status = :status")
+    int add(@Param("granularity") RollupGranularity granularity, @Param("bucketStart") LocalDateTime bucketStart,
+            @Param("status") OrderStatus status, @Param("orders") long orders,
+            @Param("revenue") BigDecimal revenue, @Param("items") long items);
+    
+    @Modifying
+    @Query("DELETE FROM OrderRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteBucketsBefore(@Param("granularity") RollupGranularity granularity, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,26 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.PendingConfirmation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingConfirmationRepository extends JpaRepository<PendingConfirmation, Long> {
+    
+    List<PendingConfirmation> findByCreatedAtBeforeOrderByIdAsc(LocalDateTime before, Limit limit);
+    
+    List<PendingConfirmation> findByOrderId(Long orderId);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PendingConfirmation p WHERE p.reservationId = :reservationId")
+    int deleteByReservationId(@Param("reservationId") String reservationId);
+}
@@ -0,0 +1,145 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.CustomerOrderHistoryDto;
+import com.example.orderservice.dto.OrderSummaryDto;
+import com.example.orderservice.model.CustomerOrderHistoryEntry;
+import com.example.orderservice.model.CustomerOrderStats;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.CustomerOrderHistoryRepository;
+import com.example.orderservice.repository.CustomerOrderStatsRepository;
+import com.example.orderservice.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Per-customer order history read model: a summary row per order plus running counts and totals per customer,
+// so a customer's page is one primary key lookup and one index range scan however many orders they placed.
+// OrderService updates it in the same transaction that writes the order, so the two never disagree.
+@Component
+public class CustomerOrderHistory {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CustomerOrderHistory.class);
+    
+    private final CustomerOrderHistoryRepository historyRepository;
+    private final CustomerOrderStatsRepository statsRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int backfillBatchSize;
+    
+    @Autowired
+    public CustomerOrderHistory(CustomerOrderHistoryRepository historyRepository,
+                                CustomerOrderStatsRepository statsRepository,
+                                OrderRepository orderRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${order.history.backfill-batch-size:500}") int backfillBatchSize) {
+        this.historyRepository = historyRepository;
+        this.statsRepository = statsRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillBatchSize = backfillBatchSize;
+    }
+    
+    @Transactional(readOnly = true)
+    public CustomerOrderHistoryDto getHistory(String customerEmail, Long before, int size) {
+        int pageSize = OrderService.pageSize(size);
+        List<OrderSummaryDto> orders = historyRepository.findByCustomerEmailAndOrderIdLessThanOrderByOrderIdDesc(
+                        customerEmail, before != null ? before : Long.MAX_VALUE, Limit.of(pageSize))
+                .stream()
+                .map(CustomerOrderHistoryEntry::toSummary)
+                .collect(Collectors.toList());
+        Long nextCursor = orders.size() == pageSize ? orders.get(orders.size() - 1).getId() : null;
+        
+        CustomerOrderStats stats = statsRepository.findById(customerEmail).orElseGet(CustomerOrderStats::new);
+        return new CustomerOrderHistoryDto(customerEmail, stats.getOrderCount(), stats.getCancelledCount(),
+                stats.getTotalSpent() != null ? stats.getTotalSpent() : BigDecimal.ZERO, stats.getLastOrderDate(),
+                orders, nextCursor);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Order order) {
+        record(new OrderSummaryDto(order.getId(), order.getCustomerName(), order.getCustomerEmail(),
+                order.getOrderDate(), order.getStatus(), order.getTotalAmount(), order.getOrderItems().size()));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Long orderId, OrderStatus status) {
+        historyRepository.findById(orderId).ifPresent(entry -> {
+            int cancelled = cancelled(status) - cancelled(entry.getStatus());
+            entry.setStatus(status);
+            if (cancelled != 0) {
+                statsRepository.add(entry.getCustomerEmail(), 0, cancelled,
+                        entry.getTotalAmount().multiply(BigDecimal.valueOf(-cancelled)), null);
+            }
+        });
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderDeleted(Long orderId) {
+        historyRepository.findById(orderId).ifPresent(entry -> {
+            historyRepository.delete(entry);
+            statsRepository.add(entry.getCustomerEmail(), -1, -cancelled(entry.getStatus()),
+                    spent(entry.getStatus(), entry.getTotalAmount()).negate(), null);
+        });
+    }
+    
+    // Fills in orders stored before the read model existed, or while it was not kept. Orders written meanwhile
+    // already have their entry (it commits with the order), so they are skipped rather than counted twice.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (historyRepository.count() >= orderRepository.count()) {
+            return;
+        }
+        int added = 0;
+        List<OrderSummaryDto> orders;
+        long after = 0;
+        do {
+            orders = orderRepository.findSummaries(null, after, Limit.of(backfillBatchSize));
+            if (!orders.isEmpty()) {
+                List<OrderSummaryDto> page = orders;
+                added += transactionTemplate.execute(status -> {
+                    List<Long> ids = page.stream().map(OrderSummaryDto::getId).collect(Collectors.toList());
+                    Set<Long> recorded = historyRepository.findAllById(ids).stream()
+                            .map(CustomerOrderHistoryEntry::getOrderId)
+                            .collect(Collectors.toSet());
+                    List<OrderSummaryDto> missing = page.stream()
+                            .filter(order -> !recorded.contains(order.getId()))
+                            .collect(Collectors.toList());
+                    missing.forEach(this::record);
+                    return missing.size();
+                });
+                after = orders.get(orders.size() - 1).getId();
+            }
+        } while (orders.size() == backfillBatchSize);
+        logger.info("Added {} orders to the customer order history", added);
+    }
+    
+    private void record(OrderSummaryDto order) {
+        historyRepository.save(new CustomerOrderHistoryEntry(order));
+        String email = order.getCustomerEmail();
+        int cancelled = cancelled(order.getStatus());
+        BigDecimal spent = spent(order.getStatus(), order.getTotalAmount());
+        statsRepository.upsert(email, 1, cancelled, spent, order.getOrderDate());
+    }
+    
+    private static int cancelled(OrderStatus status) {
+        return status == OrderStatus.CANCELLED ? 1 : 0;
+    }
+    
+    private static BigDecimal spent(OrderStatus status, BigDecimal totalAmount) {
+        return status == OrderStatus.CANCELLED ? BigDecimal.ZERO : totalAmount;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.orderservice.service;
+
+// The order was taken in by async intake and its stock is still being reserved; the intake worker owns its
+// status until then
+public class OrderAwaitingReservationException extends RuntimeException {
+    
+    public OrderAwaitingReservationException(Long orderId) {
+        super("Order " + orderId + " is still awaiting its stock reservation");
+    }
+}
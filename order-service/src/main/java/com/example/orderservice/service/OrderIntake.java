@@ -0,0 +1,153 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderRequestDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Async order intake (order.creation.mode=async): orders are stored as PENDING on the request thread and a fixed
+// pool of workers reserves their stock. At most workers + queue-capacity orders are in progress per instance;
+// past that accept() turns new orders away instead of queueing them without bound.
+// Orders left waiting by a restart or an unreachable product-service are picked up again by recover().
+// Only created in async mode, so the other modes run neither the workers nor the recovery query.
+@Component
+@ConditionalOnProperty(name = "order.creation.mode", havingValue = "async")
+public class OrderIntake {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntake.class);
+    
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore capacity;
+    private final Duration recoveryDelay;
+    
+    // Orders queued or being processed on this instance, so recovery does not submit them twice
+    private final Set<Long> inProgress = ConcurrentHashMap.newKeySet();
+    
+    private final Counter rejected;
+    private final Timer lag;
+    
+    @Autowired
+    public OrderIntake(OrderService orderService, OrderRepository orderRepository, MeterRegistry meterRegistry,
+                       @Value("${order.intake.workers:8}") int workerCount,
+                       @Value("${order.intake.queue-capacity:500}") int queueCapacity,
+                       @Value("${order.intake.recovery-delay:PT1M}") Duration recoveryDelay) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.meterRegistry = meterRegistry;
+        this.recoveryDelay = recoveryDelay;
+        // The semaphore bounds the queue, so the executor itself never rejects a task
+        this.capacity = new Semaphore(workerCount + queueCapacity);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("order-intake-"));
+        
+        this.rejected = Counter.builder("order.intake.rejected")
+                .description("Orders turned away because the intake was full")
+                .register(meterRegistry);
+        this.lag = Timer.builder("order.intake.lag")
+                .description("Time from accepting an order until a worker starts reserving its stock")
+                .register(meterRegistry);
+        Gauge.builder("order.intake.queue.depth", workers, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("order.intake.in-progress", inProgress, Set::size)
+                .register(meterRegistry);
+    }
+    
+    // Empty when the intake is full; the order is not stored then
+    public Optional<Order> accept(OrderRequestDto orderRequest) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        Order order;
+        try {
+            order = orderService.acceptOrder(orderRequest);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        dispatch(order.getId(), order.getOrderDate());
+        return Optional.of(order);
+    }
+    
+    @Scheduled(fixedDelayString = "${order.intake.recovery-interval:PT30S}")
+    public void recover() {
+        int available = capacity.availablePermits();
+        if (available == 0) {
+            return;
+        }
+        // Another instance may pick up the same order too; only one of them settles it,
+        // and the other releases the stock it reserved
+        for (Order order : orderRepository.findByAwaitingReservationTrueAndOrderDateBeforeOrderByIdAsc(
+                LocalDateTime.now().minus(recoveryDelay), Limit.of(available))) {
+            if (inProgress.contains(order.getId())) {
+                continue;
+            }
+            if (!capacity.tryAcquire()) {
+                return;
+            }
+            dispatch(order.getId(), order.getOrderDate());
+        }
+    }
+    
+    // The caller holds a capacity permit, which the task gives back
+    private void dispatch(Long orderId, LocalDateTime acceptedAt) {
+        if (!inProgress.add(orderId)) {
+            capacity.release();
+            return;
+        }
+        workers.execute(() -> process(orderId, acceptedAt));
+    }
+    
+    private void process(Long orderId, LocalDateTime acceptedAt) {
+        lag.record(Duration.between(acceptedAt, LocalDateTime.now()));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome;
+        try {
+            outcome = orderService.completeAcceptedOrder(orderId)
+                    .map(status -> status.name().toLowerCase())
+                    .orElse("skipped");
+        } catch (RuntimeException e) {
+            logger.warn("Could not reserve stock for order {}, leaving it for recovery", orderId, e);
+            outcome = "failed";
+        } finally {
+            inProgress.remove(orderId);
+            capacity.release();
+        }
+        sample.stop(Timer.builder("order.intake.processing")
+                .description("Time to reserve stock for an accepted order and settle its status")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+    
+    // Orders still queued stay PENDING in the database and are recovered after the restart
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.dto.OrderItemRequestDto;
+import com.example.orderservice.dto.StockReservationDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+// Runs the reservation step of order creation: reserve, then confirm once the order is stored, release if it is not.
+// Releases that still fail after the retries are logged and left to expire on the product side. Confirms are
+// not: OrderService keeps each one pending until it succeeds or the reservation turns out to be gone.
+@Component
+public class OrderReservationCoordinator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderReservationCoordinator.class);
+    
+    private final ProductServiceClient productServiceClient;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    
+    @Autowired
+    public OrderReservationCoordinator(ProductServiceClient productServiceClient,
+                                       @Value("${order.reservation.compensation.max-attempts:3}") int maxAttempts,
+                                       @Value("${order.reservation.compensation.initial-backoff:PT0.2S}") Duration initialBackoff) {
+        this.productServiceClient = productServiceClient;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+    }
+    
+    // Reserves under an id chosen here. When the call times out or fails in transit, product-service may still
+    // have made the reservation, so that id is released in the background; if the release gets there before the
+    // reserve, product-service refuses the reserve instead. The caller gets the original error either way.
+    public Mono<StockReservationDto> reserve(List<OrderItemRequestDto> items) {
+        String reservationId = UUID.randomUUID().toString();
+        return productServiceClient.reserveProducts(reservationId, items)
+                .doOnError(OrderReservationCoordinator::mayHaveReserved,
+                        e -> releaseAll(List.of(reservationId)).subscribe());
+    }
+    
+    // True once confirmed, false when product-service answers that the reservation was already released or
+    // expired (409) or does not exist (404). Fails when product-service could not be reached after the retries.
+    public Mono<Boolean> confirm(String reservationId) {
+        return productServiceClient.confirmReservation(reservationId)
+                .retryWhen(Retry.backoff(maxAttempts - 1, initialBackoff).filter(e -> !isClientError(e)))
+                .thenReturn(true)
+                .onErrorResume(OrderReservationCoordinator::isClientError, e -> Mono.just(false));
+    }
+    
+    public Mono<Void> releaseAll(Collection<StockReservationDto> reservations) {
+        return releaseAll(reservations.stream().map(StockReservationDto::getReservationId).collect(Collectors.toList()));
+    }
+    
+    public Mono<Void> releaseAll(List<String> reservationIds) {
+        return Flux.fromIterable(reservationIds)
+                .flatMap(reservationId -> productServiceClient.releaseReservation(reservationId)
+                        .retryWhen(Retry.backoff(maxAttempts - 1, initialBackoff).filter(e -> !isClientError(e)))
+                        .onErrorResume(e -> {
+                            logger.error("Failed to release stock reservation {}, leaving it to expire", reservationId, e);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+    
+    private static boolean mayHaveReserved(Throwable e) {
+        Throwable cause = e instanceof ProductServiceUnavailableException ? e.getCause() : e;
+        return cause instanceof TimeoutException
+                || cause instanceof WebClientRequestException
+                || cause instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+    
+    private static boolean isClientError(Throwable e) {
+        return e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderRollupDto;
+import com.example.orderservice.dto.OrderSummaryDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderRollup;
+import com.example.orderservice.model.OrderRollupBackfill;
+import com.example.orderservice.model.OrderRollupDelta;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.RollupGranularity;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OrderRollupBackfillRepository;
+import com.example.orderservice.repository.OrderRollupDeltaRepository;
+import com.example.orderservice.repository.OrderRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Order counts, revenue and item counts per minute, hour and day bucket and status, for analytics that would
+// otherwise sum whole orders. Orders count in the bucket they were placed in, under their current status.
+// Order writes record deltas in their own transaction; fold() applies them to the rollups every few seconds,
+// so the rollups lag the orders by up to one fold interval.
+@Component
+public class OrderRollups {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollups.class);
+    
+    private final OrderRollupRepository rollupRepository;
+    private final OrderRollupDeltaRepository deltaRepository;
+    private final OrderRollupBackfillRepository backfillRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long maxBuckets;
+    
+    // Minute and hour buckets are dropped after these; day buckets are kept
+    private final Map<RollupGranularity, Duration> retention = new EnumMap<>(RollupGranularity.class);
+    
+    @Autowired
+    public OrderRollups(OrderRollupRepository rollupRepository, OrderRollupDeltaRepository deltaRepository,
+                        OrderRollupBackfillRepository backfillRepository, OrderRepository orderRepository, TransactionTemplate transactionTemplate,
+                        @Value("${order.analytics.batch-size:500}") int batchSize,
+                        @Value("${order.analytics.max-buckets:10000}") long maxBuckets,
+                        @Value("${order.analytics.minute-retention:P7D}") Duration minuteRetention,
+                        @Value("${order.analytics.hour-retention:P90D}") Duration hourRetention) {
+        this.rollupRepository = rollupRepository;
+        this.deltaRepository = deltaRepository;
+        this.backfillRepository = backfillRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBuckets = maxBuckets;
+        this.retention.put(RollupGranularity.MINUTE, minuteRetention);
+        this.retention.put(RollupGranularity.HOUR, hourRetention);
+    }
+    
+    // Buckets starting in [from, to); from is rounded down to the start of its bucket. Buckets without
+    // orders are left out.
+    @Transactional(readOnly = true)
+    public List<OrderRollupDto> getRollups(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                           OrderStatus status) {
+        LocalDateTime start = granularity.bucketStart(from);
+        if (!start.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(start, to).dividedBy(granularity.bucketLength()) > maxBuckets) {
+            throw new IllegalArgumentException("Range spans more than " + maxBuckets + " " + granularity + " buckets");
+        }
+        return rollupRepository.findBuckets(granularity, start, to, status);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Order order) {
+        record(order, order.getStatus(), 1);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Order order, OrderStatus previousStatus) {
+        if (previousStatus != order.getStatus()) {
+            record(order, previousStatus, -1);
+            record(order, order.getStatus(), 1);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderDeleted(Order order) {
+        record(order, order.getStatus(), -1);
+    }
+    
+    private void record(Order order, OrderStatus status, int sign) {
+        deltaRepository.save(new OrderRollupDelta(RollupGranularity.MINUTE.bucketStart(order.getOrderDate()), status,
+                sign, order.getTotalAmount().multiply(BigDecimal.valueOf(sign)),
+                (long) sign * order.getOrderItems().size()));
+    }
+    
+    @Scheduled(fixedDelayString = "${order.analytics.fold-interval:PT5S}")
+    public void fold() {
+        try {
+            Integer folded;
+            do {
+                folded = transactionTemplate.execute(status -> foldBatch());
+            } while (folded != null && folded == batchSize);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created a row for one of the same buckets; the deltas are folded on the next run
+            logger.debug("Order rollup fold collided with another instance: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Could not fold order rollup deltas: {}", e.getMessage());
+        }
+    }
+    
+    private int foldBatch() {
+        List<OrderRollupDelta> deltas = deltaRepository.findByOrderByIdAsc(Limit.of(batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Net change per granularity, bucket start and status
+        Map<List<Object>, OrderRollup> changes = new LinkedHashMap<>();
+        for (OrderRollupDelta delta : deltas) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                LocalDateTime bucketStart = granularity.bucketStart(delta.getMinuteStart());
+                // A late status change must not bring back a bucket that was already pruned
+                if (isExpired(granularity, bucketStart, now)) {
+                    continue;
+                }
+                changes.computeIfAbsent(List.of(granularity, bucketStart, delta.getStatus()),
+                                key -> new OrderRollup(granularity, bucketStart, delta.getStatus()))
+                        .add(delta.getOrderCount(), delta.getRevenue(), delta.getItemCount());
+            }
+        }
+        
+        for (OrderRollup change : changes.values()) {
+            if (change.getOrderCount() == 0 && change.getItemCount() == 0 && change.getRevenue().signum() == 0) {
+                continue;
+            }
+            int updated = rollupRepository.add(change.getGranularity(), change.getBucketStart(), change.getStatus(),
+                    change.getOrderCount(), change.getRevenue(), change.getItemCount());
+            if (updated == 0) {
+                rollupRepository.save(change);
+            }
+        }
+        deltaRepository.deleteAllInBatch(deltas);
+        return deltas.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${order.analytics.prune-interval:PT1H}")
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> retention.forEach((granularity, kept) ->
+                rollupRepository.deleteBucketsBefore(granularity, now.minus(kept))));
+    }
+    
+    private boolean isExpired(RollupGranularity granularity, LocalDateTime bucketStart, LocalDateTime now) {
+        Duration kept = retention.get(granularity);
+        return kept != null && bucketStart.isBefore(now.minus(kept));
+    }
+    
+    // Turns the orders stored before rollups existed into deltas, one per minute and status, a batch at a
+    // time. Orders placed from then on record their own deltas. Progress is kept in the OrderRollupBackfill
+    // row, so a backfill cut short by a crash or a redeploy resumes where it stopped on the next start.
+    // A status change racing this backfill can leave that one order counted under its new status twice.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        startBackfill();
+        int added = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> backfillBatch());
+            added += batch;
+        } while (batch > 0);
+        if (added > 0) {
+            logger.info("Queued {} stored orders for the order rollups", added);
+        }
+    }
+    
+    // Fixes the range to backfill on the first start with rollups
+    private void startBackfill() {
+        if (backfillRepository.existsById(OrderRollupBackfill.ID)) {
+            return;
+        }
+        long upToOrderId = orderRepository.findFirstByOrderByIdDesc().map(Order::getId).orElse(0L);
+        // Rollups kept before backfill progress was recorded already hold the stored orders
+        boolean alreadyBackfilled = rollupRepository.count() > 0 || deltaRepository.count() > 0;
+        try {
+            transactionTemplate.executeWithoutResult(status -> backfillRepository.save(
+                    new OrderRollupBackfill(upToOrderId, alreadyBackfilled ? upToOrderId : 0L)));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance started first and fixed the range
+        }
+    }
+    
+    // Queues the next batch of stored orders and advances the marker with it; 0 once the backfill is done
+    private int backfillBatch() {
+        OrderRollupBackfill progress = backfillRepository.findWithLockById(OrderRollupBackfill.ID).orElse(null);
+        if (progress == null || progress.isComplete()) {
+            return 0;
+        }
+        List<OrderSummaryDto> orders = orderRepository.findSummaries(null, progress.getLastProcessedOrderId(),
+                Limit.of(batchSize));
+        Map<List<Object>, OrderRollupDelta> deltas = new LinkedHashMap<>();
+        int added = 0;
+        for (OrderSummaryDto order : orders) {
+            if (order.getId() > progress.getUpToOrderId()) {
+                break;
+            }
+            LocalDateTime minuteStart = RollupGranularity.MINUTE.bucketStart(order.getOrderDate());
+            OrderRollupDelta delta = deltas.computeIfAbsent(List.of(minuteStart, order.getStatus()),
+                    key -> new OrderRollupDelta(minuteStart, order.getStatus(), 0, BigDecimal.ZERO, 0));
+            delta.setOrderCount(delta.getOrderCount() + 1);
+            delta.setRevenue(delta.getRevenue().add(order.getTotalAmount()));
+            delta.setItemCount(delta.getItemCount() + order.getItemCount());
+            added++;
+        }
+        deltaRepository.saveAll(deltas.values());
+        // A short batch, or one reaching past the range, leaves no stored order behind
+        progress.setLastProcessedOrderId(orders.size() < batchSize || added < orders.size()
+                ? progress.getUpToOrderId()
+                : orders.get(orders.size() - 1).getId());
+        return added;
+    }
+}
@@ -1,47 +1,349 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.catalog.CatalogEntry;
+import com.example.orderservice.catalog.CatalogReplica;
 import com.example.orderservice.client.ProductServiceClient;
 import com.example.orderservice.dto.OrderRequestDto;
 import com.example.orderservice.dto.OrderItemRequestDto;
+import com.example.orderservice.dto.OrderPageDto;
+import com.example.orderservice.dto.OrderSummaryDto;
 import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationDto;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderItem;
 import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.PendingConfirmation;
 import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.PendingConfirmationRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
     
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    
+    // Matches the @BatchSize of Order.orderItems, so one page's items load in a single statement
+    public static final int MAX_PAGE_SIZE = 100;
+    
     private final OrderRepository orderRepository;
+    private final PendingConfirmationRepository pendingConfirmationRepository;
     private final ProductServiceClient productServiceClient;
+    private final OrderReservationCoordinator reservationCoordinator;
+    private final CatalogReplica catalogReplica;
+    private final CustomerOrderHistory customerOrderHistory;
+    private final OrderRollups orderRollups;
+    private final TransactionTemplate transactionTemplate;
+    private final int reservationBatchSize;
+    private final int reservationConcurrency;
+    private final Duration confirmRetryDelay;
     
     @Autowired
-    public OrderService(OrderRepository orderRepository, ProductServiceClient productServiceClient) {
+    public OrderService(OrderRepository orderRepository, PendingConfirmationRepository pendingConfirmationRepository,
+                        ProductServiceClient productServiceClient,
+                        OrderReservationCoordinator reservationCoordinator,
+                        CatalogReplica catalogReplica,
+                        CustomerOrderHistory customerOrderHistory,
+                        OrderRollups orderRollups,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${order.reservation.batch-size:25}") int reservationBatchSize,
+                        @Value("${order.reservation.concurrency:4}") int reservationConcurrency,
+                        @Value("${order.reservation.confirm-retry-delay:PT30S}") Duration confirmRetryDelay) {
         this.orderRepository = orderRepository;
+        this.pendingConfirmationRepository = pendingConfirmationRepository;
         this.productServiceClient = productServiceClient;
+        this.reservationCoordinator = reservationCoordinator;
+        this.catalogReplica = catalogReplica;
+        this.customerOrderHistory = customerOrderHistory;
+        this.orderRollups = orderRollups;
+        this.transactionTemplate = transactionTemplate;
+        this.reservationBatchSize = reservationBatchSize;
+        this.reservationConcurrency = reservationConcurrency;
+        this.confirmRetryDelay = confirmRetryDelay;
     }
     
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public OrderPageDto<Order> getOrdersPage(Long after, int size) {
+        return page(size, limit -> orderRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), limit));
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderPageDto<OrderSummaryDto> getOrderSummariesPage(OrderStatus status, Long after, int size) {
+        int pageSize = pageSize(size);
+        List<OrderSummaryDto> summaries = orderRepository.findSummaries(status, cursor(after), Limit.of(pageSize));
+        Long nextCursor = summaries.size() == pageSize ? summaries.get(summaries.size() - 1).getId() : null;
+        return new OrderPageDto<>(summaries, nextCursor);
     }
     
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return orderRepository.findWithItemsById(id);
     }
     
-    @Transactional
+    // Not @Transactional: the stock reservation lives in another service, so a failed save is
+    // compensated by releasing it rather than by a local rollback. Only the save itself is one transaction.
     public Order createOrder(OrderRequestDto orderRequest) {
-        // Validate products and reserve stock
+        validateAgainstCatalog(orderRequest.getOrderItems());
+        
+        // Reserve stock for the whole cart in one call
+        StockReservationDto reservation = reserveProducts(orderRequest.getOrderItems());
+        List<StockReservationDto> reservations = List.of(reservation);
+        
+        Order savedOrder;
+        try {
+            savedOrder = saveNewOrder(buildOrder(orderRequest, productsById(reservations)), reservations);
+        } catch (RuntimeException e) {
+            reservationCoordinator.releaseAll(reservations).block();
+            throw e;
+        }
+        
+        confirmReservations(savedOrder, reservations).block();
+        return savedOrder;
+    }
+    
+    // Non-blocking variant: cart chunks are reserved concurrently and only the final save runs on a worker thread
+    public Mono<Order> createOrderReactive(OrderRequestDto orderRequest) {
+        List<StockReservationDto> reservations = new CopyOnWriteArrayList<>();
+        
+        return Mono.fromRunnable(() -> validateAgainstCatalog(orderRequest.getOrderItems()))
+                .thenMany(Flux.fromIterable(orderRequest.getOrderItems()))
+                .buffer(reservationBatchSize)
+                .flatMapSequential(reservationCoordinator::reserve, reservationConcurrency)
+                .doOnNext(reservations::add)
+                .onErrorMap(WebClientResponseException.class,
+                        e -> new RuntimeException("Failed to reserve stock for order items: " + e.getStatusCode(), e))
+                .then(Mono.fromCallable(() -> buildOrder(orderRequest, productsById(reservations))))
+                .flatMap(order -> Mono.fromCallable(() -> saveNewOrder(order, reservations))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                // Any chunk already reserved when another chunk or the save fails is handed back
+                .onErrorResume(e -> reservationCoordinator.releaseAll(reservations).then(Mono.error(e)))
+                .flatMap(savedOrder -> confirmReservations(savedOrder, reservations).thenReturn(savedOrder));
+    }
+    
+    // Async intake, first step: prices the cart and stores it as PENDING without reserving stock yet.
+    // OrderIntake then calls completeAcceptedOrder on one of its workers.
+    public Order acceptOrder(OrderRequestDto orderRequest) {
+        validateAgainstCatalog(orderRequest.getOrderItems());
+        Order order = buildOrder(orderRequest, lookUpProducts(orderRequest.getOrderItems()));
+        order.setAwaitingReservation(true);
+        return saveNewOrder(order, List.of());
+    }
+    
+    // The order, its customer order history entry, its rollup delta and its pending confirmations commit together
+    private Order saveNewOrder(Order order, List<StockReservationDto> reservations) {
+        return transactionTemplate.execute(status -> {
+            Order savedOrder = orderRepository.save(order);
+            customerOrderHistory.orderPlaced(savedOrder);
+            orderRollups.orderPlaced(savedOrder);
+            recordPendingConfirmations(savedOrder.getId(), reservations);
+            return savedOrder;
+        });
+    }
+    
+    private void recordPendingConfirmations(Long orderId, List<StockReservationDto> reservations) {
+        pendingConfirmationRepository.saveAll(reservations.stream()
+                .map(reservation -> new PendingConfirmation(orderId, reservation.getReservationId()))
+                .collect(Collectors.toList()));
+    }
+    
+    // Confirms the reservations of a stored order. Each confirmed one is no longer pending; one that
+    // product-service no longer has cancels the order, since its stock is back on sale. Confirms that cannot
+    // reach product-service stay pending for retryPendingConfirmations. Updates the status of the given order.
+    private Mono<Void> confirmReservations(Order order, List<StockReservationDto> reservations) {
+        return Flux.fromIterable(reservations)
+                .concatMap(reservation -> confirmReservation(order.getId(), reservation.getReservationId()))
+                .filter(confirmed -> !confirmed)
+                .next()
+                .doOnNext(lost -> order.setStatus(OrderStatus.CANCELLED))
+                .then();
+    }
+    
+    // True when confirmed or left pending, false when the reservation was lost and the order cancelled
+    private Mono<Boolean> confirmReservation(Long orderId, String reservationId) {
+        return reservationCoordinator.confirm(reservationId)
+                .flatMap(confirmed -> Mono.fromCallable(() -> {
+                            if (confirmed) {
+                                pendingConfirmationRepository.deleteByReservationId(reservationId);
+                            } else {
+                                cancelForLostReservation(orderId, reservationId);
+                            }
+                            return confirmed;
+                        })
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .onErrorResume(e -> {
+                    logger.warn("Could not confirm stock reservation {} of order {}, will retry: {}",
+                            reservationId, orderId, e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+    
+    // Re-drives confirms that failed when their order was stored, including those of an instance that stopped
+    // before it could try; the delay keeps this from racing the first attempt
+    @Scheduled(fixedDelayString = "${order.reservation.confirm-retry-interval:PT15S}")
+    public void retryPendingConfirmations() {
+        List<PendingConfirmation> pending = pendingConfirmationRepository.findByCreatedAtBeforeOrderByIdAsc(
+                LocalDateTime.now().minus(confirmRetryDelay), Limit.of(MAX_PAGE_SIZE));
+        for (PendingConfirmation confirmation : pending) {
+            confirmReservation(confirmation.getOrderId(), confirmation.getReservationId()).block();
+        }
+    }
+    
+    // product-service released or expired a reservation the order was stored with: the order cannot be
+    // filled, so it is cancelled and its other unconfirmed reservations are handed back
+    private void cancelForLostReservation(Long orderId, String reservationId) {
+        List<String> otherReservations = transactionTemplate.execute(status -> {
+            List<String> others = pendingConfirmationRepository.findByOrderId(orderId).stream()
+                    .map(PendingConfirmation::getReservationId)
+                    .filter(id -> !id.equals(reservationId))
+                    .collect(Collectors.toList());
+            pendingConfirmationRepository.deleteAll(pendingConfirmationRepository.findByOrderId(orderId));
+            orderRepository.findWithItemsById(orderId)
+                    .filter(order -> order.getStatus() != OrderStatus.CANCELLED)
+                    .ifPresent(order -> {
+                        OrderStatus previousStatus = order.getStatus();
+                        order.setStatus(OrderStatus.CANCELLED);
+                        customerOrderHistory.statusChanged(orderId, OrderStatus.CANCELLED);
+                        orderRollups.statusChanged(order, previousStatus);
+                    });
+            return others;
+        });
+        logger.warn("Stock reservation {} of order {} was released or expired before it was confirmed; order cancelled",
+                reservationId, orderId);
+        reservationCoordinator.releaseAll(otherReservations).block();
+    }
+    
+    // Async intake, second step: reserves the stock and settles the order as CONFIRMED, or as CANCELLED when
+    // product-service refuses the reservation. Empty when the order was already settled by another worker.
+    // Failures to reach product-service are thrown and leave the order waiting for a later attempt.
+    public Optional<OrderStatus> completeAcceptedOrder(Long orderId) {
+        Optional<Order> accepted = orderRepository.findWithItemsById(orderId).filter(Order::isAwaitingReservation);
+        if (accepted.isEmpty()) {
+            return Optional.empty();
+        }
+        Order order = accepted.get();
+        List<OrderItemRequestDto> itemRequests = order.getOrderItems().stream()
+                .map(item -> new OrderItemRequestDto(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        
+        StockReservationDto reservation;
+        try {
+            reservation = reservationCoordinator.reserve(itemRequests).block();
+        } catch (WebClientResponseException e) {
+            if (!e.getStatusCode().is4xxClientError()) {
+                throw e;
+            }
+            // Unknown product or not enough stock
+            return settle(order, OrderStatus.CANCELLED);
+        }
+        if (reservation == null) {
+            throw new RuntimeException("Failed to reserve stock for order with ID: " + orderId);
+        }
+        
+        List<StockReservationDto> reservations = List.of(reservation);
+        Optional<OrderStatus> settled = settle(order, OrderStatus.CONFIRMED, reservations);
+        if (settled.isEmpty()) {
+            reservationCoordinator.releaseAll(reservations).block();
+            return settled;
+        }
+        confirmReservations(order, reservations).block();
+        return Optional.of(order.getStatus());
+    }
+    
+    private Optional<OrderStatus> settle(Order order, OrderStatus status) {
+        return settle(order, status, List.of());
+    }
+    
+    private Optional<OrderStatus> settle(Order order, OrderStatus status, List<StockReservationDto> reservations) {
+        boolean settled = Boolean.TRUE.equals(transactionTemplate.execute(transaction -> {
+            if (orderRepository.settleAwaitingOrder(order.getId(), status) == 0) {
+                return false;
+            }
+            OrderStatus previousStatus = order.getStatus();
+            order.setStatus(status);
+            customerOrderHistory.statusChanged(order.getId(), status);
+            orderRollups.statusChanged(order, previousStatus);
+            recordPendingConfirmations(order.getId(), reservations);
+            return true;
+        }));
+        return settled ? Optional.of(status) : Optional.empty();
+    }
+    
+    // Product details for pricing a cart that is not reserved yet: the local catalog where it has the
+    // product, else product-service (revalidated against the client's cache)
+    private Map<Long, ProductDto> lookUpProducts(List<OrderItemRequestDto> itemRequests) {
+        Map<Long, ProductDto> products = new HashMap<>();
+        for (OrderItemRequestDto itemRequest : itemRequests) {
+            Long productId = itemRequest.getProductId();
+            if (!products.containsKey(productId)) {
+                products.put(productId, lookUpProduct(productId));
+            }
+        }
+        return products;
+    }
+    
+    private ProductDto lookUpProduct(Long productId) {
+        Optional<CatalogEntry> entry = catalogReplica.find(productId);
+        if (entry.isPresent()) {
+            return new ProductDto(productId, entry.get().getName(), null, entry.get().getPrice(),
+                    entry.get().getStockQuantity(), null);
+        }
+        try {
+            return productServiceClient.getProductById(productId).block();
+        } catch (WebClientResponseException.NotFound e) {
+            throw new RuntimeException("Product not found with ID: " + productId, e);
+        }
+    }
+    
+    // Rejects carts the local catalog already shows cannot be filled, without a call to product-service.
+    // The replica may lag, so passing this check is no promise: the reservation stays the authority on stock.
+    private void validateAgainstCatalog(List<OrderItemRequestDto> itemRequests) {
+        if (!catalogReplica.isReady()) {
+            return;
+        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        itemRequests.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        quantities.forEach((productId, quantity) -> {
+            CatalogEntry entry = catalogReplica.find(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+            if (entry.getStockQuantity() < quantity) {
+                throw new RuntimeException("Insufficient stock for product with ID: " + productId);
+            }
+        });
+    }
+    
+    // A cart may list a product on several lines that land in different reservation chunks; every chunk
+    // returns the product, so the first one is kept
+    private Map<Long, ProductDto> productsById(List<StockReservationDto> reservations) {
+        return reservations.stream()
+                .flatMap(reservation -> reservation.getProducts().stream())
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity(), (first, duplicate) -> first));
+    }
+    
+    public Order buildOrder(OrderRequestDto orderRequest, Map<Long, ProductDto> reservedProducts) {
         List<OrderItem> orderItems = orderRequest.getOrderItems().stream()
-                .map(this::createOrderItem)
+                .map(itemRequest -> createOrderItem(itemRequest, reservedProducts.get(itemRequest.getProductId())))
                 .collect(Collectors.toList());
         
         // Calculate total amount
@@ -61,28 +363,29 @@ public class OrderService {
         orderItems.forEach(item -> item.setOrder(order));
         order.setOrderItems(orderItems);
         
-        return orderRepository.save(order);
+        return order;
     }
     
-    private OrderItem createOrderItem(OrderItemRequestDto itemRequest) {
-        // Get product information from product service
-        ProductDto product = productServiceClient.getProductById(itemRequest.getProductId())
-                .block();
-        
-        if (product == null) {
-            throw new RuntimeException("Product not found with ID: " + itemRequest.getProductId());
+    private StockReservationDto reserveProducts(List<OrderItemRequestDto> itemRequests) {
+        StockReservationDto reservation;
+        try {
+            reservation = reservationCoordinator.reserve(itemRequests).block();
+        } catch (WebClientResponseException e) {
+            throw new RuntimeException("Failed to reserve stock for order items: " + e.getStatusCode(), e);
         }
         
-        if (product.getStockQuantity() < itemRequest.getQuantity()) {
-            throw new RuntimeException("Insufficient stock for product: " + product.getName());
+        if (reservation == null) {
+            throw new RuntimeException("Failed to reserve stock for order items");
         }
         
-        // Reserve stock
-        Boolean stockReserved = productServiceClient.reserveStock(itemRequest.getProductId(), itemRequest.getQuantity())
-                .block();
-        
-        if (stockReserved == null || !stockReserved) {
-            throw new RuntimeException("Failed to reserve stock for product: " + product.getName());
+        return reservation;
+    }
+    
+    // Name and price come from the reservation response: product-service answers it from the committed row,
+    // while the catalog replica may lag behind a price change
+    private OrderItem createOrderItem(OrderItemRequestDto itemRequest, ProductDto product) {
+        if (product == null) {
+            throw new RuntimeException("Product not found with ID: " + itemRequest.getProductId());
         }
         
         return new OrderItem(
@@ -93,31 +396,68 @@ public class OrderService {
         );
     }
     
+    // Refused while async intake still reserves the order's stock: its worker settles the status with a guarded
+    // update and counts the change from PENDING. The flag is only ever cleared, so an order read without it
+    // cannot be settled by a worker any more.
+    @Transactional
     public Optional<Order> updateOrderStatus(Long id, OrderStatus status) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithItemsById(id)
                 .map(order -> {
+                    if (order.isAwaitingReservation()) {
+                        throw new OrderAwaitingReservationException(id);
+                    }
+                    OrderStatus previousStatus = order.getStatus();
                     order.setStatus(status);
-                    return orderRepository.save(order);
+                    customerOrderHistory.statusChanged(id, status);
+                    orderRollups.statusChanged(order, previousStatus);
+                    return order;
                 });
     }
     
+    @Transactional
     public boolean deleteOrder(Long id) {
-        if (orderRepository.existsById(id)) {
-            orderRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return orderRepository.findWithItemsById(id)
+                .map(order -> {
+                    customerOrderHistory.orderDeleted(id);
+                    orderRollups.orderDeleted(order);
+                    pendingConfirmationRepository.deleteAll(pendingConfirmationRepository.findByOrderId(id));
+                    orderRepository.delete(order);
+                    return true;
+                })
+                .orElse(false);
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderPageDto<Order> getOrdersByCustomerEmail(String email, Long after, int size) {
+        return page(size, limit -> orderRepository.findByCustomerEmailAndIdGreaterThanOrderByIdAsc(email, cursor(after), limit));
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderPageDto<Order> getOrdersByStatus(OrderStatus status, Long after, int size) {
+        return page(size, limit -> orderRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, cursor(after), limit));
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderPageDto<Order> searchOrdersByCustomerName(String customerName, Long after, int size) {
+        return page(size, limit -> orderRepository.findByCustomerNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                customerName, cursor(after), limit));
     }
     
-    public List<Order> getOrdersByCustomerEmail(String email) {
-        return orderRepository.findByCustomerEmail(email);
+    // Runs a keyset page query, then loads the items of all its orders with one more statement (see @BatchSize
+    // on Order.orderItems), so a page costs two statements however many orders it holds
+    private OrderPageDto<Order> page(int size, Function<Limit, List<Order>> query) {
+        int pageSize = pageSize(size);
+        List<Order> orders = query.apply(Limit.of(pageSize));
+        orders.forEach(order -> Hibernate.initialize(order.getOrderItems()));
+        Long nextCursor = orders.size() == pageSize ? orders.get(orders.size() - 1).getId() : null;
+        return new OrderPageDto<>(orders, nextCursor);
     }
     
-    public List<Order> getOrdersByStatus(OrderStatus status) {
-        return orderRepository.findByStatus(status);
+    static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
     }
     
-    public List<Order> searchOrdersByCustomerName(String customerName) {
-        return orderRepository.findByCustomerNameContainingIgnoreCase(customerName);
+    private static long cursor(Long after) {
+        return after != null ? after : 0L;
     }
 }
@@ -0,0 +1,85 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderPageDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.repository.OrderRepository;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The order listings must cost the same number of statements whatever the page size, however many items
+// each order has; only the repository is needed, the service's other collaborators are left out
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderServicePagingTest {
+    
+    private static final int ORDERS = 100;
+    private static final int ITEMS_PER_ORDER = 3;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    private OrderService orderService;
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, null, null, null, null, null, null, null, 25, 4,
+                Duration.ofSeconds(30));
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        
+        for (int i = 1; i <= ORDERS; i++) {
+            Order order = new Order("Customer " + i, "customer" + i + "@example.com", i + " Main St");
+            List<OrderItem> items = new ArrayList<>();
+            for (long productId = 1; productId <= ITEMS_PER_ORDER; productId++) {
+                OrderItem item = new OrderItem(productId, "Product " + productId, 1, new BigDecimal("9.99"));
+                item.setOrder(order);
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.setTotalAmount(new BigDecimal("29.97"));
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+    }
+    
+    @Test
+    void ordersPageCostsTheSameStatementsAtAnySize() {
+        Map<Integer, Long> statementsByPageSize = new TreeMap<>();
+        for (int pageSize : new int[]{5, 50, 100}) {
+            // Nothing may come from the persistence context the orders were saved through
+            entityManager.clear();
+            statistics.clear();
+            
+            OrderPageDto<Order> page = orderService.getOrdersPage(null, pageSize);
+            
+            assertThat(page.getItems()).hasSize(pageSize);
+            assertThat(page.getItems()).allSatisfy(order -> {
+                assertThat(Hibernate.isInitialized(order.getOrderItems())).isTrue();
+                assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER);
+            });
+            statementsByPageSize.put(pageSize, statistics.getPrepareStatementCount());
+        }
+        
+        // The page query, then the items of all its orders in one batch
+        assertThat(statementsByPageSize).containsOnly(Map.entry(5, 2L), Map.entry(50, 2L), Map.entry(100, 2L));
+    }
+}
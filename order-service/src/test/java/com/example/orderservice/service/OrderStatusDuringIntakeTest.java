@@ -0,0 +1,96 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.dto.OrderItemRequestDto;
+import com.example.orderservice.dto.OrderRequestDto;
+import com.example.orderservice.dto.OrderRollupDto;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.RollupGranularity;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+// A manual status change racing the async intake worker that reserves the order's stock: the change is
+// refused, so the worker's settle stays the only transition out of PENDING and the rollups count it once
+@SpringBootTest(properties = {"catalog.replica.enabled=false", "order.analytics.fold-interval=PT1H"})
+class OrderStatusDuringIntakeTest {
+    
+    private static final ProductDto KETTLE = new ProductDto(1L, "Kettle", "Steel kettle", new BigDecimal("39.99"), 10, "Kitchen");
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderRollups orderRollups;
+    
+    @MockBean
+    private ProductServiceClient productServiceClient;
+    
+    @MockBean
+    private OrderReservationCoordinator reservationCoordinator;
+    
+    @Test
+    void statusChangeWhileTheWorkerReservesIsRefused() throws Exception {
+        when(productServiceClient.getProductById(1L)).thenReturn(Mono.just(KETTLE));
+        CountDownLatch reserving = new CountDownLatch(1);
+        CountDownLatch reserved = new CountDownLatch(1);
+        when(reservationCoordinator.reserve(anyList())).thenReturn(Mono.fromCallable(() -> {
+            reserving.countDown();
+            reserved.await();
+            return new StockReservationDto("reservation-1", LocalDateTime.now().plusMinutes(10), List.of(KETTLE));
+        }).subscribeOn(Schedulers.boundedElastic()));
+        when(reservationCoordinator.confirm(any())).thenReturn(Mono.just(true));
+        
+        Order order = orderService.acceptOrder(new OrderRequestDto("Jane Doe", "jane@example.com", "1 Main St",
+                List.of(new OrderItemRequestDto(1L, 2))));
+        CompletableFuture<Optional<OrderStatus>> worker =
+                CompletableFuture.supplyAsync(() -> orderService.completeAcceptedOrder(order.getId()));
+        assertThat(reserving.await(10, TimeUnit.SECONDS)).isTrue();
+        
+        assertThatThrownBy(() -> orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELLED))
+                .isInstanceOf(OrderAwaitingReservationException.class);
+        
+        reserved.countDown();
+        assertThat(worker.get(10, TimeUnit.SECONDS)).contains(OrderStatus.CONFIRMED);
+        assertThat(orderRepository.findById(order.getId())).get()
+                .extracting(Order::getStatus).isEqualTo(OrderStatus.CONFIRMED);
+        
+        // Settled, so a manual change goes through again
+        assertThat(orderService.updateOrderStatus(order.getId(), OrderStatus.SHIPPED)).isPresent();
+        
+        orderRollups.fold();
+        LocalDateTime orderDate = order.getOrderDate();
+        Map<OrderStatus, Long> ordersByStatus = orderRollups.getRollups(RollupGranularity.DAY,
+                        orderDate.minusDays(1), orderDate.plusDays(1), null).stream()
+                .filter(rollup -> rollup.getOrderCount() != 0)
+                .collect(Collectors.groupingBy(OrderRollupDto::getStatus,
+                        Collectors.summingLong(OrderRollupDto::getOrderCount)));
+        assertThat(ordersByStatus).containsOnly(Map.entry(OrderStatus.SHIPPED, 1L));
+    }
+}
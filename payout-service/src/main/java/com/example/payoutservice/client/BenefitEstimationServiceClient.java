@@ -12,18 +12,19 @@ import java.util.Map;
 public class BenefitEstimationServiceClient {
     
     private final WebClient webClient;
-    private final String baseUrl;
     
     @Autowired
-    public BenefitEstimationServiceClient(WebClient webClient, @Value("${benefit-estimation-service.url}") String baseUrl) {
-        this.webClient = webClient;
-        this.baseUrl = baseUrl;
+    public BenefitEstimationServiceClient(WebClient.Builder webClientBuilder,
+                                          @Value("${benefit-estimation-service.url}") String baseUrl) {
+        this.webClient = webClientBuilder
+                .baseUrl(baseUrl)
+                .build();
     }
     
     @SuppressWarnings("unchecked")
     public Mono<Map<String, Object>> getBenefitEstimationById(Long estimationId) {
         return webClient.get()
-                .uri(baseUrl + "/{id}", estimationId)
+                .uri("/{id}", estimationId)
                 .retrieve()
                 .bodyToMono(Map.class)
                 .map(map -> (Map<String, Object>) map);
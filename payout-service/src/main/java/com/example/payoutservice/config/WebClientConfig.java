@@ -1,14 +1,59 @@
 package com.example.payoutservice.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class WebClientConfig {
     
+    // Pool limits apply per remote host; metrics are published as reactor.netty.connection.provider.*
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider httpConnectionProvider(
+            @Value("${http-client.max-connections:100}") int maxConnections,
+            @Value("${http-client.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${http-client.pending-acquire-timeout:PT5S}") Duration pendingAcquireTimeout,
+            @Value("${http-client.max-idle-time:PT30S}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("payout-service-http")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+    
+    // Picked up by Spring Boot's WebClient.Builder, so every client built from it shares this pool
+    @Bean
+    public ClientHttpConnector clientHttpConnector(
+            ConnectionProvider httpConnectionProvider,
+            @Value("${http-client.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${http-client.response-timeout:PT5S}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create(httpConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+    
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder().build();
+    public WebClientCustomizer inFlightRequestsCustomizer(MeterRegistry meterRegistry) {
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("http.client.requests.inflight", inFlight, AtomicInteger::get)
+                .description("Outbound HTTP requests currently awaiting a response")
+                .register(meterRegistry);
+        return builder -> builder.filter((request, next) -> next.exchange(request)
+                .doOnSubscribe(subscription -> inFlight.incrementAndGet())
+                .doFinally(signal -> inFlight.decrementAndGet()));
     }
 }
@@ -62,7 +62,7 @@ public class PayoutService {
         return payoutRepository.save(payout);
     }
     
-    private String generateTransactionId() {
+    public static String generateTransactionId() {
         return "PAYOUT-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
     }
     
@@ -0,0 +1,33 @@
+package com.example.productservice.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+// Publishes L1 invalidations on a Redis channel as <nodeId>|<cacheName>|<key>,
+// with an empty key meaning "clear the whole cache".
+public class CacheInvalidationPublisher {
+    
+    static final String SEPARATOR = "|";
+    
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public void publishEvict(String cacheName, String key) {
+        redisTemplate.convertAndSend(channel, nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+    
+    public void publishClear(String cacheName) {
+        redisTemplate.convertAndSend(channel, nodeId + SEPARATOR + cacheName + SEPARATOR);
+    }
+}
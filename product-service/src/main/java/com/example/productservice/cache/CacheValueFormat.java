@@ -0,0 +1,6 @@
+package com.example.productservice.cache;
+
+public enum CacheValueFormat {
+    JSON,
+    BINARY
+}
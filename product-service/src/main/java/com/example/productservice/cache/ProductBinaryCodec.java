@@ -0,0 +1,61 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.example.productservice.cache.BinaryCodec.readDecimal;
+import static com.example.productservice.cache.BinaryCodec.readNullableInt;
+import static com.example.productservice.cache.BinaryCodec.readNullableLong;
+import static com.example.productservice.cache.BinaryCodec.readString;
+import static com.example.productservice.cache.BinaryCodec.writeDecimal;
+import static com.example.productservice.cache.BinaryCodec.writeNullableInt;
+import static com.example.productservice.cache.BinaryCodec.writeNullableLong;
+import static com.example.productservice.cache.BinaryCodec.writeString;
+
+public class ProductBinaryCodec implements BinaryCodec<Product> {
+    
+    // Version 1: id, name, description, price, stockQuantity, category
+    // Version 2: adds the entity version after category
+    private static final int CURRENT_VERSION = 2;
+    
+    @Override
+    public Class<Product> type() {
+        return Product.class;
+    }
+    
+    @Override
+    public int currentVersion() {
+        return CURRENT_VERSION;
+    }
+    
+    @Override
+    public void write(Product product, DataOutput out) throws IOException {
+        writeNullableLong(out, product.getId());
+        writeString(out, product.getName());
+        writeString(out, product.getDescription());
+        writeDecimal(out, product.getPrice());
+        writeNullableInt(out, product.getStockQuantity());
+        writeString(out, product.getCategory());
+        writeNullableLong(out, product.getVersion());
+    }
+    
+    @Override
+    public Product read(DataInput in, int version) throws IOException {
+        if (version < 2) {
+            // No entity version to build an ETag from; reload instead
+            return null;
+        }
+        Product product = new Product();
+        product.setId(readNullableLong(in));
+        product.setName(readString(in));
+        product.setDescription(readString(in));
+        product.setPrice(readDecimal(in));
+        product.setStockQuantity(readNullableInt(in));
+        product.setCategory(readString(in));
+        product.setVersion(readNullableLong(in));
+        return product;
+    }
+}
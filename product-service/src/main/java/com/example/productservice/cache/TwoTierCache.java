@@ -0,0 +1,289 @@
+package com.example.productservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Cache with a bounded in-heap L1 in front of a shared Redis L2.
+// Writes go through to both tiers and tell the other replicas to drop their L1 copy.
+// Loads through get(key, loader) are coalesced per key on this node, and hot entries this node
+// loaded can be refreshed in the background shortly before their Redis TTL runs out.
+public class TwoTierCache implements Cache {
+    
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final Cache redisCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    
+    // One in-flight load per key; concurrent misses wait on it instead of calling the loader
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    
+    // When and how slowly each key was last loaded here, for probabilistic early refresh (null when disabled)
+    private final com.github.benmanes.caffeine.cache.Cache<String, LoadTiming> loadTimings;
+    private final Duration remoteTtl;
+    private final double earlyRefreshBeta;
+    private final Executor refreshExecutor;
+    
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter loads;
+    private final Counter coalescedLoads;
+    private final Counter earlyRefreshes;
+    
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache,
+                        Cache redisCache,
+                        CacheInvalidationPublisher invalidationPublisher,
+                        MeterRegistry meterRegistry,
+                        com.github.benmanes.caffeine.cache.Cache<String, LoadTiming> loadTimings,
+                        Duration remoteTtl,
+                        double earlyRefreshBeta,
+                        Executor refreshExecutor) {
+        this.name = name;
+        this.localCache = localCache;
+        this.redisCache = redisCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.loadTimings = loadTimings;
+        this.remoteTtl = remoteTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.refreshExecutor = refreshExecutor;
+        
+        this.l1Hits = tierCounter(meterRegistry, "l1", "hit");
+        this.l1Misses = tierCounter(meterRegistry, "l1", "miss");
+        this.l2Hits = tierCounter(meterRegistry, "l2", "hit");
+        this.l2Misses = tierCounter(meterRegistry, "l2", "miss");
+        this.loads = loadCounter(meterRegistry, "loaded");
+        this.coalescedLoads = loadCounter(meterRegistry, "coalesced");
+        this.earlyRefreshes = loadCounter(meterRegistry, "refreshed");
+        Gauge.builder("cache.tier.size", localCache, c -> c.estimatedSize())
+                .tag("cache", name)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+    }
+    
+    private Counter loadCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.loads")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    private Counter tierCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    // Keys arrive as Long ids locally but as strings over pub/sub, so L1 is keyed by their string form
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        Object localValue = localCache.getIfPresent(localKey(key));
+        if (localValue != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(localValue);
+        }
+        l1Misses.increment();
+        
+        ValueWrapper redisValue = redisCache.get(key);
+        if (redisValue == null || redisValue.get() == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        localCache.put(localKey(key), redisValue.get());
+        return redisValue;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            if (shouldRefreshEarly(localKey(key))) {
+                refreshExecutor.execute(() -> refresh(key, valueLoader));
+            }
+            return (T) wrapper.get();
+        }
+        
+        CompletableFuture<Object> ownLoad = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(localKey(key), ownLoad);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            return (T) awaitLoad(key, valueLoader, inFlight);
+        }
+        
+        try {
+            // The previous load for this key may have finished between our lookup and registering
+            Object justLoaded = localCache.getIfPresent(localKey(key));
+            T value;
+            if (justLoaded != null) {
+                value = (T) justLoaded;
+            } else {
+                loads.increment();
+                value = load(key, valueLoader);
+            }
+            ownLoad.complete(value);
+            return value;
+        } catch (Exception e) {
+            ownLoad.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlightLoads.remove(localKey(key), ownLoad);
+        }
+    }
+    
+    private <T> T load(Object key, Callable<T> valueLoader) throws Exception {
+        long startNanos = System.nanoTime();
+        T value = valueLoader.call();
+        if (value != null) {
+            put(key, value);
+            if (loadTimings != null) {
+                loadTimings.put(localKey(key), new LoadTiming(System.nanoTime(), System.nanoTime() - startNanos));
+            }
+        }
+        return value;
+    }
+    
+    private Object awaitLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+    
+    // XFetch: refresh with a probability that rises as expiry approaches and with how long the load takes,
+    // so one caller reloads a hot key before it expires instead of all of them missing at once
+    private boolean shouldRefreshEarly(String localKey) {
+        if (loadTimings == null) {
+            return false;
+        }
+        LoadTiming timing = loadTimings.getIfPresent(localKey);
+        if (timing == null) {
+            return false;
+        }
+        long expiresAtNanos = timing.loadedAtNanos + remoteTtl.toNanos();
+        double jitterNanos = -timing.loadDurationNanos * earlyRefreshBeta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + jitterNanos >= expiresAtNanos
+                && !inFlightLoads.containsKey(localKey);
+    }
+    
+    private void refresh(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> ownLoad = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(localKey(key), ownLoad) != null) {
+            return;
+        }
+        try {
+            earlyRefreshes.increment();
+            ownLoad.complete(load(key, valueLoader));
+        } catch (Exception e) {
+            // The current value stays in place until it expires; the next miss retries the load
+            ownLoad.completeExceptionally(e);
+        } finally {
+            inFlightLoads.remove(localKey(key), ownLoad);
+        }
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        redisCache.put(key, value);
+        localCache.put(localKey(key), value);
+        if (loadTimings != null) {
+            // Redis restarted the TTL and the timing of the last load no longer applies
+            loadTimings.invalidate(localKey(key));
+        }
+        invalidationPublisher.publishEvict(name, localKey(key));
+    }
+    
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        localCache.invalidate(localKey(key));
+        if (loadTimings != null) {
+            loadTimings.invalidate(localKey(key));
+        }
+        invalidationPublisher.publishEvict(name, localKey(key));
+    }
+    
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        if (loadTimings != null) {
+            loadTimings.invalidateAll();
+        }
+        invalidationPublisher.publishClear(name);
+    }
+    
+    // Called for invalidations published by other replicas; only the local tier is touched
+    void evictLocal(String key) {
+        localCache.invalidate(key);
+        if (loadTimings != null) {
+            loadTimings.invalidate(key);
+        }
+    }
+    
+    void clearLocal() {
+        localCache.invalidateAll();
+        if (loadTimings != null) {
+            loadTimings.invalidateAll();
+        }
+    }
+    
+    static class LoadTiming {
+        
+        final long loadedAtNanos;
+        final long loadDurationNanos;
+        
+        LoadTiming(long loadedAtNanos, long loadDurationNanos) {
+            this.loadedAtNanos = loadedAtNanos;
+            this.loadDurationNanos = loadDurationNanos;
+        }
+    }
+}
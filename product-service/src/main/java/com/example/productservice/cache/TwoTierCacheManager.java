@@ -0,0 +1,106 @@
+package com.example.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+// Builds a TwoTierCache per cache name on top of a RedisCacheManager and applies
+// L1 invalidations received from other replicas.
+public class TwoTierCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+    
+    private final RedisCacheManager redisCacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final Duration remoteTtl;
+    private final Map<String, TwoTierCache> twoTierCaches = new ConcurrentHashMap<>();
+    
+    // Probabilistic early refresh; a beta of 0 turns it off
+    private double earlyRefreshBeta;
+    private Executor refreshExecutor;
+    
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager,
+                               CacheInvalidationPublisher invalidationPublisher,
+                               MeterRegistry meterRegistry,
+                               long localMaximumSize,
+                               Duration localTtl,
+                               Duration remoteTtl) {
+        this.redisCacheManager = redisCacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.remoteTtl = remoteTtl;
+    }
+    
+    public void setEarlyRefresh(double beta, Executor executor) {
+        this.earlyRefreshBeta = beta;
+        this.refreshExecutor = executor;
+    }
+    
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Collections.emptyList();
+    }
+    
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return twoTierCaches.computeIfAbsent(name, cacheName -> new TwoTierCache(
+                cacheName,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaximumSize)
+                        .expireAfterWrite(localTtl)
+                        .build(),
+                redisCache,
+                invalidationPublisher,
+                meterRegistry,
+                earlyRefreshBeta > 0
+                        ? Caffeine.newBuilder().maximumSize(localMaximumSize).expireAfterWrite(remoteTtl).build()
+                        : null,
+                remoteTtl,
+                earlyRefreshBeta,
+                refreshExecutor));
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8)
+                .split("\\" + CacheInvalidationPublisher.SEPARATOR, 3);
+        if (parts.length < 3 || invalidationPublisher.getNodeId().equals(parts[0])) {
+            return;
+        }
+        
+        TwoTierCache cache = twoTierCaches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        
+        logger.debug("Received L1 invalidation for {}::{} from node {}", parts[1], parts[2], parts[0]);
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.productservice.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// Layout: one format-version byte followed by the codec's fields.
+// Entries written as JSON start with '{' or '[' and are still read through the JSON serializer, and binary
+// entries are read even when writing JSON, so a cache can be switched either way without flushing Redis.
+// Values of other types are always written as JSON.
+public class VersionedBinaryRedisSerializer<T> implements RedisSerializer<Object> {
+    
+    private final BinaryCodec<T> codec;
+    private final RedisSerializer<Object> jsonSerializer;
+    private final boolean writeBinary;
+    
+    public VersionedBinaryRedisSerializer(BinaryCodec<T> codec, RedisSerializer<Object> jsonSerializer,
+                                          boolean writeBinary) {
+        if (codec.currentVersion() < 1 || codec.currentVersion() >= '[') {
+            throw new IllegalArgumentException("Format version must be between 1 and 0x5A: " + codec.currentVersion());
+        }
+        this.codec = codec;
+        this.jsonSerializer = jsonSerializer;
+        this.writeBinary = writeBinary;
+    }
+    
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        if (!writeBinary || !codec.type().isInstance(value)) {
+            return jsonSerializer.serialize(value);
+        }
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(codec.currentVersion());
+            codec.write(codec.type().cast(value), out);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write " + codec.type().getSimpleName(), e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == '{' || bytes[0] == '[') {
+            return jsonSerializer.deserialize(bytes);
+        }
+        
+        int version = bytes[0];
+        if (version > codec.currentVersion()) {
+            // Written by a newer release during a rolling deploy; treat as a miss so the value is reloaded
+            return null;
+        }
+        if (version < 1) {
+            throw new SerializationException("Unsupported " + codec.type().getSimpleName() + " format version: " + version);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            return codec.read(in, version);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read " + codec.type().getSimpleName(), e);
+        }
+    }
+}
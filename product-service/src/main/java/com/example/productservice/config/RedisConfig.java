@@ -1,22 +1,43 @@
 package com.example.productservice.config;
 
+import com.example.productservice.cache.BinaryCodec;
+import com.example.productservice.cache.CacheInvalidationPublisher;
+import com.example.productservice.cache.CacheValueFormat;
+import com.example.productservice.cache.ProductBinaryCodec;
+import com.example.productservice.cache.TwoTierCacheManager;
+import com.example.productservice.cache.VersionedBinaryRedisSerializer;
+import com.example.productservice.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    // Caches whose values have a binary codec; each one's format is chosen with cache.serializers.<cache-name>
+    private static final Map<String, BinaryCodec<?>> BINARY_CODECS = Map.of(
+            ProductService.PRODUCT_CACHE, new ProductBinaryCodec());
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -35,17 +56,56 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            StringRedisTemplate stringRedisTemplate,
+                                            MeterRegistry meterRegistry,
+                                            Environment environment,
+                                            @Value("${cache.l1.maximum-size:10000}") long localMaximumSize,
+                                            @Value("${cache.l1.ttl:PT1M}") Duration localTtl,
+                                            @Value("${cache.ttl:PT30M}") Duration remoteTtl,
+                                            @Value("${cache.early-refresh.beta:1.0}") double earlyRefreshBeta,
+                                            @Qualifier("applicationTaskExecutor") Executor refreshExecutor,
+                                            @Value("${cache.invalidation-channel:product-cache-invalidation}") String invalidationChannel) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30)) // Cache for 30 minutes
+                .entryTtl(remoteTtl)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
-    }
-}
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config);
+        BINARY_CODECS.forEach((cacheName, codec) -> {
+            CacheValueFormat format = environment.getProperty(
+                    "cache.serializers." + cacheName, CacheValueFormat.class, CacheValueFormat.JSON);
+            RedisSerializer<Object> serializer = new VersionedBinaryRedisSerializer<>(
+                    codec, new GenericJackson2JsonRedisSerializer(), format == CacheValueFormat.BINARY);
+            builder.withCacheConfiguration(cacheName, config.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(serializer)));
+        });
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
 
+        // In-heap L1 in front of Redis; its TTL bounds staleness if an invalidation message is lost
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(
+                redisCacheManager,
+                new CacheInvalidationPublisher(stringRedisTemplate, invalidationChannel),
+                meterRegistry,
+                localMaximumSize,
+                localTtl,
+                remoteTtl);
+        cacheManager.setEarlyRefresh(earlyRefreshBeta, refreshExecutor);
+        cacheManager.setTransactionAware(true); // Apply puts/evictions only after the surrounding transaction commits
+        return cacheManager;
+    }
 
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TwoTierCacheManager cacheManager,
+            @Value("${cache.invalidation-channel:product-cache-invalidation}") String invalidationChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+}
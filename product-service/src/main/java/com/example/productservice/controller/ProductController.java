@@ -1,7 +1,18 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.dto.ProductEventDto;
+import com.example.productservice.dto.ProductImportReportDto;
+import com.example.productservice.dto.ProductPageDto;
+import com.example.productservice.dto.StockReservationRequestDto;
+import com.example.productservice.dto.StockReservationResponseDto;
 import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductField;
+import com.example.productservice.model.ReservationStatus;
+import com.example.productservice.service.ProductImportService;
 import com.example.productservice.service.ProductService;
+import com.example.productservice.service.StockReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,12 +23,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
@@ -25,11 +44,21 @@ import java.util.Optional;
 @Tag(name = "Product Management", description = "APIs for managing products in the e-commerce platform")
 public class ProductController {
 
+    private static final String REMAINING_STOCK_HEADER = "X-Remaining-Stock";
+    private static final String EVENT_OFFSET_HEADER = "X-Event-Offset";
+
     private final ProductService productService;
+    private final StockReservationService stockReservationService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, StockReservationService stockReservationService,
+                             ProductImportService productImportService, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.stockReservationService = stockReservationService;
+        this.productImportService = productImportService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -38,25 +67,142 @@ public class ProductController {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products",
             content = @Content(mediaType = "application/json",
                 schema = @Schema(implementation = Product.class))),
+        @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag sent in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<?>> getAllProducts(
+            @Parameter(description = "Comma-separated properties to return, e.g. name,price,stockQuantity; the id is always included")
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        Set<ProductField> selected;
+        try {
+            selected = fields != null ? ProductField.parse(fields) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Checked before loading the list so an unchanged catalog costs one aggregate query
+        String etag = "\"catalog-" + productService.getCatalogVersion()
+                + (selected != null ? "-" + fieldsTag(selected) : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<?> products = selected != null
+                ? productService.getAllProducts(selected)
+                : productService.getAllProducts();
+        return ResponseEntity.ok().eTag(etag).body(products);
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of products",
+            description = "Retrieve products in id order using keyset pagination; pass nextCursor as 'after' to fetch the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved page of products"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ProductPageDto> getProductsPage(
+            @Parameter(description = "Return products with an id greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of products to return (capped at 500)")
+            @RequestParam(defaultValue = "50") int size) {
+        ProductPageDto page = productService.getProductsPage(after, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/events")
+    @Operation(summary = "Replay product change events",
+            description = "Retrieve product change events in offset order; pass the offset of the last event seen as 'after' to continue")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved product events"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<ProductEventDto>> getProductEvents(
+            @Parameter(description = "Return events with an offset greater than this one")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of events to return (capped at 500)")
+            @RequestParam(defaultValue = "100") int limit) {
+        List<ProductEventDto> events = productService.getProductEvents(after, limit);
+        return ResponseEntity.ok(events);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all products",
+            description = "Stream every product as newline-delimited JSON while the database cursor is scrolled. " +
+                    "The X-Event-Offset header holds the latest change event offset before the scan started; " +
+                    "replaying /events after it brings a copy built from the stream up to date")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully streamed products"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        long eventOffset = productService.getLatestEventOffset();
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(Product.class);
+            try {
+                productService.streamAllProducts(product -> {
+                    try {
+                        outputStream.write(writer.writeValueAsBytes(product));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(EVENT_OFFSET_HEADER, String.valueOf(eventOffset))
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Bulk import products",
+            description = "Stream a CSV (with header row) or NDJSON supplier feed. Rows are validated one by one " +
+                    "and inserted in JDBC batches; invalid rows are skipped and listed in the report.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows"),
+        @ApiResponse(responseCode = "400", description = "Unreadable input, e.g. a CSV header without required columns"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<ProductImportReportDto> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        ProductImportService.Format format = MediaType.APPLICATION_NDJSON.includes(contentType)
+                ? ProductImportService.Format.NDJSON
+                : ProductImportService.Format.CSV;
+        try {
+            return ResponseEntity.ok(productImportService.importProducts(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved product"),
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag sent in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Product not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<Product> getProductById(
             @Parameter(description = "ID of the product to retrieve", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
         Optional<Product> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
+        return product.map(found -> {
+                    if (found.getVersion() == null) {
+                        return ResponseEntity.ok(found);
+                    }
+                    String etag = "\"" + found.getId() + "-" + found.getVersion() + "\"";
+                    if (request.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Product>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(found);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -110,37 +256,86 @@ public class ProductController {
     @Operation(summary = "Get products by category", description = "Retrieve all products in a specific category")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products by category"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Product>> getProductsByCategory(
+    public ResponseEntity<List<?>> getProductsByCategory(
             @Parameter(description = "Category name to filter by", required = true)
-            @PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+            @PathVariable String category,
+            @Parameter(description = "Comma-separated properties to return, e.g. name,price,stockQuantity; the id is always included")
+            @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            return ResponseEntity.ok(productService.getProductsByCategory(category));
+        }
+        try {
+            return ResponseEntity.ok(productService.getProductsByCategory(category, ProductField.parse(fields)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search products by name", description = "Search for products by name (case-insensitive)")
+    @Operation(summary = "Search products",
+            description = "Case-insensitive search served by an in-memory index once it is built. Every word of the query "
+                    + "must match: the start of a word in the product's name or category (\"kett\" finds \"Kettle\", "
+                    + "\"kitchen\" finds products in the Kitchen category), or a whole word of its description. "
+                    + "Text in the middle of a word does not match (\"ettle\" finds nothing). Results are in id order. "
+                    + "While the index is still being built after startup, and for queries without any letters or "
+                    + "digits, the name alone is matched as a substring instead")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved matching products"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Product>> searchProducts(
-            @Parameter(description = "Product name to search for", required = true)
-            @RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<?>> searchProducts(
+            @Parameter(description = "Words to search for; each must start a word of the name or category, or be a word of the description", required = true)
+            @RequestParam String name,
+            @Parameter(description = "Comma-separated properties to return, e.g. name,price,stockQuantity; the id is always included")
+            @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            return ResponseEntity.ok(productService.searchProductsByName(name));
+        }
+        try {
+            return ResponseEntity.ok(productService.searchProductsByName(name, ProductField.parse(fields)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/in-stock")
     @Operation(summary = "Get products in stock", description = "Retrieve all products that have stock quantity greater than 0")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products in stock"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Product>> getProductsInStock() {
-        List<Product> products = productService.getProductsInStock();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<?>> getProductsInStock(
+            @Parameter(description = "Comma-separated properties to return, e.g. name,price,stockQuantity; the id is always included")
+            @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            return ResponseEntity.ok(productService.getProductsInStock());
+        }
+        try {
+            return ResponseEntity.ok(productService.getProductsInStock(ProductField.parse(fields)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/in-stock/page")
+    @Operation(summary = "Get a page of products in stock",
+            description = "Retrieve products with stock left in id order using keyset pagination; pass nextCursor as 'after' to fetch the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved page of products in stock"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ProductPageDto> getProductsInStockPage(
+            @Parameter(description = "Return products with an id greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of products to return (capped at 500)")
+            @RequestParam(defaultValue = "50") int size) {
+        ProductPageDto page = productService.getProductsInStockPage(after, size);
+        return ResponseEntity.ok(page);
     }
 
     @PatchMapping("/{id}/stock")
@@ -163,7 +358,7 @@ public class ProductController {
     @PostMapping("/{id}/reserve")
     @Operation(summary = "Reserve product stock", description = "Reserve a specific quantity of stock for a product")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Stock reserved successfully"),
+        @ApiResponse(responseCode = "200", description = "Stock reserved successfully; remaining stock is returned in the X-Remaining-Stock header"),
         @ApiResponse(responseCode = "404", description = "Product not found"),
         @ApiResponse(responseCode = "400", description = "Insufficient stock"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
@@ -173,7 +368,74 @@ public class ProductController {
             @PathVariable Long id,
             @Parameter(description = "Quantity to reserve", required = true)
             @RequestParam Integer quantity) {
-        boolean reserved = productService.reserveStock(id, quantity);
-        return ResponseEntity.ok(reserved);
+        Optional<Integer> remaining = productService.reserveStockWithRemaining(id, quantity);
+        return remaining.map(stock -> ResponseEntity.ok()
+                        .header(REMAINING_STOCK_HEADER, String.valueOf(stock))
+                        .body(true))
+                .orElse(ResponseEntity.ok(false));
+    }
+
+    @PostMapping("/reserve")
+    @Operation(summary = "Reserve stock for multiple products",
+            description = "Look up and reserve stock for a set of products in a single all-or-nothing call. " +
+                    "The reservation must be confirmed or released before it expires, otherwise the stock is returned. " +
+                    "With a client-chosen reservationId, repeating the call returns the same reservation, and a " +
+                    "reservation released before the call arrived is refused.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock reserved successfully for all products"),
+        @ApiResponse(responseCode = "400", description = "Unknown product, insufficient stock, or reservation ID already released"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StockReservationResponseDto> reserveStockBatch(
+            @Parameter(description = "Products and quantities to reserve", required = true)
+            @Valid @RequestBody StockReservationRequestDto reservationRequest) {
+        Optional<StockReservationResponseDto> reservation = stockReservationService.reserve(
+                reservationRequest.getReservationId(), reservationRequest.getItems());
+        return reservation.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.badRequest().build());
+    }
+
+    @PostMapping("/reservations/{reservationId}/confirm")
+    @Operation(summary = "Confirm a stock reservation", description = "Make a pending reservation permanent so it no longer expires")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Reservation confirmed"),
+        @ApiResponse(responseCode = "404", description = "Reservation not found"),
+        @ApiResponse(responseCode = "409", description = "Reservation was already released or expired"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ReservationStatus> confirmReservation(
+            @Parameter(description = "ID of the reservation to confirm", required = true)
+            @PathVariable String reservationId) {
+        Optional<ReservationStatus> status = stockReservationService.confirm(reservationId);
+        return status.map(result -> result == ReservationStatus.CONFIRMED
+                        ? ResponseEntity.ok(result)
+                        : ResponseEntity.status(HttpStatus.CONFLICT).body(result))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/reservations/{reservationId}/release")
+    @Operation(summary = "Release a stock reservation",
+            description = "Return the reserved stock to the products; releasing twice is a no-op. Releasing an ID " +
+                    "not reserved yet makes a later reserve call with that ID fail, e.g. one whose caller timed out")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Reservation released"),
+        @ApiResponse(responseCode = "404", description = "Reservation ID longer than 36 characters"),
+        @ApiResponse(responseCode = "409", description = "Reservation was already confirmed"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ReservationStatus> releaseReservation(
+            @Parameter(description = "ID of the reservation to release", required = true)
+            @PathVariable String reservationId) {
+        Optional<ReservationStatus> status = stockReservationService.release(reservationId);
+        return status.map(result -> result == ReservationStatus.RELEASED
+                        ? ResponseEntity.ok(result)
+                        : ResponseEntity.status(HttpStatus.CONFLICT).body(result))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static String fieldsTag(Set<ProductField> fields) {
+        StringBuilder tag = new StringBuilder();
+        fields.forEach(field -> tag.append(field.ordinal()));
+        return tag.toString();
     }
 }
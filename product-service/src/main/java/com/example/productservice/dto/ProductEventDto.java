@@ -0,0 +1,90 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductEventType;
+
+import java.time.LocalDateTime;
+
+public class ProductEventDto {
+    
+    private Long offset;
+    private Long productId;
+    private ProductEventType type;
+    private Product product;
+    private Integer stockQuantity;
+    private LocalDateTime occurredAt;
+    
+    // Default constructor
+    public ProductEventDto() {}
+    
+    // Constructor with fields
+    public ProductEventDto(Long offset, Long productId, ProductEventType type, Product product,
+                           Integer stockQuantity, LocalDateTime occurredAt) {
+        this.offset = offset;
+        this.productId = productId;
+        this.type = type;
+        this.product = product;
+        this.stockQuantity = stockQuantity;
+        this.occurredAt = occurredAt;
+    }
+    
+    // Getters and Setters
+    public Long getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public ProductEventType getType() {
+        return type;
+    }
+    
+    public void setType(ProductEventType type) {
+        this.type = type;
+    }
+    
+    public Product getProduct() {
+        return product;
+    }
+    
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+    
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+    
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductEventDto{" +
+                "offset=" + offset +
+                ", productId=" + productId +
+                ", type=" + type +
+                ", stockQuantity=" + stockQuantity +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
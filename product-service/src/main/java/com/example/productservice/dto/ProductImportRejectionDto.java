@@ -0,0 +1,41 @@
+package com.example.productservice.dto;
+
+public class ProductImportRejectionDto {
+    
+    private long row;
+    private String reason;
+    
+    // Default constructor
+    public ProductImportRejectionDto() {}
+    
+    // Constructor with fields
+    public ProductImportRejectionDto(long row, String reason) {
+        this.row = row;
+        this.reason = reason;
+    }
+    
+    // Getters and Setters
+    public long getRow() {
+        return row;
+    }
+    
+    public void setRow(long row) {
+        this.row = row;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductImportRejectionDto{" +
+                "row=" + row +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
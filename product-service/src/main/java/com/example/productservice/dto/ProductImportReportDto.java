@@ -0,0 +1,79 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+public class ProductImportReportDto {
+    
+    private long importedCount;
+    private long rejectedCount;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    
+    // Capped at product.import.max-reported-rejections; rejectedCount is always the full total
+    private List<ProductImportRejectionDto> rejectedRows;
+    
+    // Default constructor
+    public ProductImportReportDto() {}
+    
+    // Constructor with fields
+    public ProductImportReportDto(long importedCount, long rejectedCount, long elapsedMillis,
+                                  double rowsPerSecond, List<ProductImportRejectionDto> rejectedRows) {
+        this.importedCount = importedCount;
+        this.rejectedCount = rejectedCount;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = rowsPerSecond;
+        this.rejectedRows = rejectedRows;
+    }
+    
+    // Getters and Setters
+    public long getImportedCount() {
+        return importedCount;
+    }
+    
+    public void setImportedCount(long importedCount) {
+        this.importedCount = importedCount;
+    }
+    
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+    
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+    
+    public List<ProductImportRejectionDto> getRejectedRows() {
+        return rejectedRows;
+    }
+    
+    public void setRejectedRows(List<ProductImportRejectionDto> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductImportReportDto{" +
+                "importedCount=" + importedCount +
+                ", rejectedCount=" + rejectedCount +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + rowsPerSecond +
+                ", rejectedRows=" + rejectedRows +
+                '}';
+    }
+}
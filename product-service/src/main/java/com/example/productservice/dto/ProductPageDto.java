@@ -0,0 +1,46 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.model.Product;
+import java.util.List;
+
+public class ProductPageDto {
+    
+    private List<Product> items;
+    
+    // Id to pass as "after" for the next page; null on the last page
+    private Long nextCursor;
+    
+    // Default constructor
+    public ProductPageDto() {}
+    
+    // Constructor with fields
+    public ProductPageDto(List<Product> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<Product> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<Product> items) {
+        this.items = items;
+    }
+    
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductPageDto{" +
+                "items=" + items +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
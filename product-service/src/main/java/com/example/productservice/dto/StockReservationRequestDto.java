@@ -0,0 +1,50 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class StockReservationRequestDto {
+    
+    @NotEmpty(message = "Reservation items cannot be empty")
+    @Valid
+    private List<StockReservationItemDto> items;
+    
+    // Optional id chosen by the client, e.g. a UUID; one is generated when absent
+    @Size(max = 36, message = "Reservation ID must be at most 36 characters")
+    private String reservationId;
+    
+    // Default constructor
+    public StockReservationRequestDto() {}
+    
+    // Constructor with fields
+    public StockReservationRequestDto(List<StockReservationItemDto> items) {
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public List<StockReservationItemDto> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<StockReservationItemDto> items) {
+        this.items = items;
+    }
+    
+    public String getReservationId() {
+        return reservationId;
+    }
+    
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockReservationRequestDto{" +
+                "items=" + items +
+                ", reservationId='" + reservationId + '\'' +
+                '}';
+    }
+}
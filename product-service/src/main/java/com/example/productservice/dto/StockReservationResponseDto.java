@@ -0,0 +1,59 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.model.Product;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class StockReservationResponseDto {
+    
+    private String reservationId;
+    
+    // Stock is returned to the product automatically unless the reservation is confirmed before this time
+    private LocalDateTime expiresAt;
+    
+    private List<Product> products;
+    
+    // Default constructor
+    public StockReservationResponseDto() {}
+    
+    // Constructor with fields
+    public StockReservationResponseDto(String reservationId, LocalDateTime expiresAt, List<Product> products) {
+        this.reservationId = reservationId;
+        this.expiresAt = expiresAt;
+        this.products = products;
+    }
+    
+    // Getters and Setters
+    public String getReservationId() {
+        return reservationId;
+    }
+    
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public List<Product> getProducts() {
+        return products;
+    }
+    
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockReservationResponseDto{" +
+                "reservationId='" + reservationId + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", products=" + products +
+                '}';
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.productservice.importer;
+
+import com.example.productservice.model.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// RFC 4180 style CSV: a header row naming the columns, optional double-quoted fields with "" escapes.
+// Recognised columns are name, description, price, stockQuantity (or stock_quantity) and category.
+public class CsvProductRowReader implements ProductRowReader {
+    
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String PRICE = "price";
+    private static final String STOCK_QUANTITY = "stockquantity";
+    private static final String CATEGORY = "category";
+    
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private Map<String, Integer> columns;
+    private long rowNumber;
+    private boolean endOfInput;
+    
+    public CsvProductRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+    
+    @Override
+    public ProductRow nextRow() throws IOException {
+        if (columns == null) {
+            List<String> header = readRecord();
+            if (header == null) {
+                return null;
+            }
+            columns = parseHeader(header);
+        }
+        
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+        
+        if (record.size() != columns.size()) {
+            return ProductRow.rejected(rowNumber,
+                    "Expected " + columns.size() + " columns but found " + record.size());
+        }
+        
+        try {
+            Product product = new Product(
+                    value(record, NAME),
+                    value(record, DESCRIPTION),
+                    toDecimal(value(record, PRICE)),
+                    toInteger(value(record, STOCK_QUANTITY)),
+                    value(record, CATEGORY));
+            return ProductRow.parsed(rowNumber, product);
+        } catch (NumberFormatException e) {
+            return ProductRow.rejected(rowNumber, "Invalid number: " + e.getMessage());
+        }
+    }
+    
+    private Map<String, Integer> parseHeader(List<String> header) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            indexes.put(column, i);
+        }
+        for (String required : List.of(NAME, PRICE, STOCK_QUANTITY, CATEGORY)) {
+            if (!indexes.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing required column: " + required);
+            }
+        }
+        return indexes;
+    }
+    
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static BigDecimal toDecimal(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+    
+    private static Integer toInteger(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+    
+    // Reads one record, which may span several physical lines when a quoted field contains line breaks
+    private List<String> readRecord() throws IOException {
+        if (endOfInput) {
+            return null;
+        }
+        rowNumber++;
+        
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean sawAnyChar = false;
+        
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                endOfInput = true;
+                if (!sawAnyChar) {
+                    return null;
+                }
+                record.add(field.toString());
+                return record;
+            }
+            sawAnyChar = true;
+            
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                record.add(field.toString());
+                return record;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+}
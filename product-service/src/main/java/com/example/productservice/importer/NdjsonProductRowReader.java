@@ -0,0 +1,41 @@
+package com.example.productservice.importer;
+
+import com.example.productservice.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public class NdjsonProductRowReader implements ProductRowReader {
+    
+    private final BufferedReader reader;
+    private final ObjectReader productReader;
+    private long rowNumber;
+    
+    public NdjsonProductRowReader(BufferedReader reader, ObjectReader productReader) {
+        this.reader = reader;
+        this.productReader = productReader.forType(Product.class);
+    }
+    
+    @Override
+    public ProductRow nextRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            rowNumber++;
+        } while (line.isBlank());
+        
+        try {
+            Product product = productReader.readValue(line);
+            // Ids are always assigned by the database
+            product.setId(null);
+            return ProductRow.parsed(rowNumber, product);
+        } catch (JsonProcessingException e) {
+            return ProductRow.rejected(rowNumber, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+}
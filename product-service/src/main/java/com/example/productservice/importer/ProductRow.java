@@ -0,0 +1,41 @@
+package com.example.productservice.importer;
+
+import com.example.productservice.model.Product;
+
+// One parsed input record: either a product or the reason it could not be parsed
+public class ProductRow {
+    
+    private final long rowNumber;
+    private final Product product;
+    private final String error;
+    
+    private ProductRow(long rowNumber, Product product, String error) {
+        this.rowNumber = rowNumber;
+        this.product = product;
+        this.error = error;
+    }
+    
+    public static ProductRow parsed(long rowNumber, Product product) {
+        return new ProductRow(rowNumber, product, null);
+    }
+    
+    public static ProductRow rejected(long rowNumber, String error) {
+        return new ProductRow(rowNumber, null, error);
+    }
+    
+    public long getRowNumber() {
+        return rowNumber;
+    }
+    
+    public Product getProduct() {
+        return product;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public boolean isRejected() {
+        return error != null;
+    }
+}
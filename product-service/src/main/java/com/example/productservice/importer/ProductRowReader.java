@@ -0,0 +1,10 @@
+package com.example.productservice.importer;
+
+import java.io.IOException;
+
+// Pulls one record at a time from an import stream so the whole feed is never held in memory
+public interface ProductRowReader {
+    
+    // Returns null once the input is exhausted
+    ProductRow nextRow() throws IOException;
+}
@@ -0,0 +1,129 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.outbox.ProductOutbox;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.service.ProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryLedger implements InventoryLedger {
+    
+    private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+    private final InStockIndex inStockIndex;
+    private final ProductOutbox productOutbox;
+    
+    public DatabaseInventoryLedger(ProductRepository productRepository, CacheManager cacheManager,
+                                   InStockIndex inStockIndex, ProductOutbox productOutbox) {
+        this.productRepository = productRepository;
+        this.cacheManager = cacheManager;
+        this.inStockIndex = inStockIndex;
+        this.productOutbox = productOutbox;
+    }
+    
+    @Override
+    @Transactional
+    public Optional<Integer> reserve(Long productId, int quantity) {
+        // The row stays locked by the conditional update, so the remaining quantity read here is exact
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            return Optional.empty();
+        }
+        evict(productId);
+        refreshInStock(List.of(productId));
+        Optional<Integer> remaining = productRepository.findStockQuantityById(productId);
+        remaining.ifPresent(stock -> productOutbox.stockChanged(productId, stock));
+        return remaining;
+    }
+    
+    @Override
+    @Transactional
+    public boolean reserveAll(Map<Long, Integer> quantities) {
+        // Decrements already applied are undone by the caller rolling back its transaction
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (productRepository.decrementStock(entry.getKey(), entry.getValue()) == 0) {
+                return false;
+            }
+            evict(entry.getKey());
+        }
+        productRepository.findAllById(quantities.keySet())
+                .forEach(product -> productOutbox.stockChanged(product.getId(), product.getStockQuantity()));
+        refreshInStock(quantities.keySet());
+        return true;
+    }
+    
+    @Override
+    @Transactional
+    public void release(Long productId, int quantity) {
+        productRepository.incrementStock(productId, quantity);
+        productRepository.findStockQuantityById(productId)
+                .ifPresent(stock -> productOutbox.stockChanged(productId, stock));
+        evict(productId);
+        refreshInStock(List.of(productId));
+    }
+    
+    @Override
+    @Transactional
+    public boolean setStock(Long productId, int quantity) {
+        return productRepository.findById(productId)
+                .map(product -> {
+                    product.setStockQuantity(quantity);
+                    productRepository.save(product);
+                    productOutbox.stockChanged(productId, quantity);
+                    refreshInStock(List.of(productId));
+                    return true;
+                })
+                .orElse(false);
+    }
+    
+    @Override
+    public void remove(Long productId) {
+        // Stock is deleted with the product row
+        inStockIndex.remove(productId);
+    }
+    
+    @Override
+    public void track(List<Product> products) {
+        afterCommit(() -> inStockIndex.record(products));
+    }
+    
+    @Override
+    public boolean isWriteBehind() {
+        return false;
+    }
+    
+    // Re-reads the rows once the change commits; the index ignores a read older than one it already applied
+    private void refreshInStock(Collection<Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+        afterCommit(() -> inStockIndex.record(productRepository.findAllById(ids)));
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    // Evictions are deferred by the transaction-aware cache until the stock change commits
+    private void evict(Long productId) {
+        cacheManager.getCache(ProductService.PRODUCT_CACHE).evict(productId);
+    }
+}
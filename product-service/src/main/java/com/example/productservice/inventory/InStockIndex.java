@@ -0,0 +1,72 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.model.Product;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// Ids of the products with stock left, kept in a Redis sorted set scored by id so every replica serves the
+// same view and pages through it by id cursor. The inventory ledger keeps it current on each stock change:
+// the Redis ledger inside its scripts, the database ledger after commit using the product version to drop
+// out-of-order updates. InStockReconciler rebuilds it in the background and marks it ready.
+@Component
+public class InStockIndex {
+    
+    static final String IN_STOCK_KEY = "{inventory}:in-stock";
+    static final String VERSIONS_KEY = "{inventory}:in-stock:versions";
+    static final String READY_KEY = "{inventory}:in-stock:ready";
+    
+    private static final RedisScript<Long> RECORD_SCRIPT =
+            RedisScript.of(new ClassPathResource("inventory/in-stock-record.lua"), Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    
+    public InStockIndex(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+    
+    // False until a reconciliation has completed against this Redis, e.g. after it was flushed
+    public boolean isReady() {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY));
+    }
+    
+    void markReady() {
+        redisTemplate.opsForValue().set(READY_KEY, "1");
+    }
+    
+    // Returns up to limit in-stock product ids greater than after, in ascending order
+    public List<Long> page(Long after, int limit) {
+        double min = after != null ? after + 1 : Double.NEGATIVE_INFINITY;
+        Set<String> members = redisTemplate.opsForZSet().rangeByScore(IN_STOCK_KEY, min, Double.POSITIVE_INFINITY, 0, limit);
+        List<Long> ids = new ArrayList<>(members != null ? members.size() : 0);
+        if (members != null) {
+            members.forEach(member -> ids.add(Long.valueOf(member)));
+        }
+        return ids;
+    }
+    
+    // Applies stock and version as read from the products table; used when the table is the source of truth
+    void record(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(products.size() * 3);
+        for (Product product : products) {
+            args.add(product.getId().toString());
+            args.add(product.getStockQuantity().toString());
+            args.add(String.valueOf(product.getVersion() != null ? product.getVersion() : 0L));
+        }
+        redisTemplate.execute(RECORD_SCRIPT, List.of(IN_STOCK_KEY, VERSIONS_KEY), args.toArray());
+    }
+    
+    void remove(Long productId) {
+        redisTemplate.opsForZSet().remove(IN_STOCK_KEY, productId.toString());
+        redisTemplate.opsForHash().delete(VERSIONS_KEY, productId.toString());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Walks the whole catalog through the inventory ledger so InStockIndex holds every product, then drops ids
+// of deleted products. Each step is safe against concurrent stock changes, so it runs in place on every
+// replica: at startup, which marks the index ready, and periodically to repair anything missed.
+@Component
+public class InStockReconciler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InStockReconciler.class);
+    
+    private final ProductRepository productRepository;
+    private final InventoryLedger inventoryLedger;
+    private final InStockIndex inStockIndex;
+    private final int batchSize;
+    
+    public InStockReconciler(ProductRepository productRepository, InventoryLedger inventoryLedger,
+                             InStockIndex inStockIndex,
+                             @Value("${product.stream.fetch-size:500}") int batchSize) {
+        this.productRepository = productRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.inStockIndex = inStockIndex;
+        this.batchSize = batchSize;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+    
+    @Scheduled(initialDelayString = "${inventory.in-stock.reconcile-interval:PT5M}",
+               fixedDelayString = "${inventory.in-stock.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        long startMillis = System.currentTimeMillis();
+        int tracked = 0;
+        List<Product> products;
+        long after = 0;
+        do {
+            products = productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+            if (!products.isEmpty()) {
+                inventoryLedger.track(products);
+                after = products.get(products.size() - 1).getId();
+                tracked += products.size();
+            }
+        } while (products.size() == batchSize);
+        
+        int removed = 0;
+        List<Long> ids;
+        Long cursor = null;
+        do {
+            ids = inStockIndex.page(cursor, batchSize);
+            if (!ids.isEmpty()) {
+                Set<Long> existing = productRepository.findAllById(ids).stream()
+                        .map(Product::getId)
+                        .collect(Collectors.toSet());
+                for (Long id : ids) {
+                    if (!existing.contains(id)) {
+                        inStockIndex.remove(id);
+                        removed++;
+                    }
+                }
+                cursor = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+        
+        inStockIndex.markReady();
+        logger.info("Reconciled in-stock index: {} products checked, {} stale ids removed in {} ms",
+                tracked, removed, System.currentTimeMillis() - startMillis);
+    }
+}
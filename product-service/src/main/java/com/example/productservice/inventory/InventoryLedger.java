@@ -0,0 +1,35 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.model.Product;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Owns every change to a product's available stock. Selected with inventory.mode:
+// "database" updates products.stock_quantity directly, "redis" keeps the live count in Redis
+// and writes the net changes back to the table in the background.
+// Both keep InStockIndex in step with the stock they change.
+public interface InventoryLedger {
+    
+    // Returns the remaining stock, or empty if the product is unknown or short on stock
+    Optional<Integer> reserve(Long productId, int quantity);
+    
+    // All-or-nothing across products; participates in the caller's transaction
+    boolean reserveAll(Map<Long, Integer> quantities);
+    
+    // Applied once the caller's transaction commits
+    void release(Long productId, int quantity);
+    
+    // Returns false if the product is unknown
+    boolean setStock(Long productId, int quantity);
+    
+    void remove(Long productId);
+    
+    // Brings the in-stock index up to date for products whose stock was written to the table outside
+    // the ledger: created, imported or edited, as returned by save
+    void track(List<Product> products);
+    
+    // True when products.stock_quantity lags behind the ledger and must not be written directly
+    boolean isWriteBehind();
+}
@@ -0,0 +1,129 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.outbox.ProductOutbox;
+import com.example.productservice.repository.InventoryFlushRepository;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.productservice.inventory.RedisInventoryLedger.FLUSHING_KEY;
+import static com.example.productservice.inventory.RedisInventoryLedger.FLUSH_EPOCH_KEY;
+import static com.example.productservice.inventory.RedisInventoryLedger.INFLIGHT_DELTAS_KEY;
+import static com.example.productservice.inventory.RedisInventoryLedger.PENDING_DELTAS_KEY;
+
+// Applies the net stock deltas collected by RedisInventoryLedger to the products table in batches.
+// The pending hash is renamed to an in-flight hash, applied in one transaction that also records the batch id,
+// and only then deleted. A batch left in flight by a crash is picked up again on the next run or at startup;
+// the recorded batch id makes that retry a no-op if the database had already committed it.
+@Component
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "redis")
+public class InventoryWriteBehind {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InventoryWriteBehind.class);
+    
+    private static final RedisScript<String> BEGIN_FLUSH_SCRIPT =
+            RedisScript.of(new ClassPathResource("inventory/begin-flush.lua"), String.class);
+    private static final RedisScript<Long> COMPLETE_FLUSH_SCRIPT =
+            RedisScript.of(new ClassPathResource("inventory/complete-flush.lua"), Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+    private final InventoryFlushRepository inventoryFlushRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ProductOutbox productOutbox;
+    private final Duration flushRetention;
+    
+    public InventoryWriteBehind(StringRedisTemplate redisTemplate,
+                                ProductRepository productRepository,
+                                InventoryFlushRepository inventoryFlushRepository,
+                                TransactionTemplate transactionTemplate,
+                                CacheManager cacheManager,
+                                ProductOutbox productOutbox,
+                                @Value("${inventory.flush-retention:P1D}") Duration flushRetention) {
+        this.redisTemplate = redisTemplate;
+        this.productRepository = productRepository;
+        this.inventoryFlushRepository = inventoryFlushRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.productOutbox = productOutbox;
+        this.flushRetention = flushRetention;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(INFLIGHT_DELTAS_KEY))) {
+            logger.warn("Found an unfinished inventory flush, re-applying it");
+        }
+        flush();
+    }
+    
+    @Scheduled(initialDelayString = "${inventory.flush-interval:PT1S}", fixedDelayString = "${inventory.flush-interval:PT1S}")
+    public synchronized void flush() {
+        String batchId = redisTemplate.execute(BEGIN_FLUSH_SCRIPT,
+                List.of(PENDING_DELTAS_KEY, INFLIGHT_DELTAS_KEY, FLUSHING_KEY), UUID.randomUUID().toString());
+        if (batchId == null) {
+            return;
+        }
+        
+        Map<Object, Object> deltas = redisTemplate.opsForHash().entries(INFLIGHT_DELTAS_KEY);
+        boolean applied = apply(batchId, deltas);
+        redisTemplate.execute(COMPLETE_FLUSH_SCRIPT, List.of(INFLIGHT_DELTAS_KEY, FLUSHING_KEY, FLUSH_EPOCH_KEY), batchId);
+        if (applied) {
+            logger.debug("Wrote stock deltas for {} products to the database (batch {})", deltas.size(), batchId);
+        }
+    }
+    
+    private boolean apply(String batchId, Map<Object, Object> deltas) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (inventoryFlushRepository.existsById(batchId)) {
+                    return false;
+                }
+                // Taken first so a second node applying the same batch blocks here and then fails on the key
+                inventoryFlushRepository.insert(batchId, LocalDateTime.now());
+                
+                Cache productCache = cacheManager.getCache(ProductService.PRODUCT_CACHE);
+                List<Long> changedIds = new ArrayList<>(deltas.size());
+                deltas.forEach((productId, delta) -> {
+                    int quantity = Integer.parseInt((String) delta);
+                    if (quantity != 0) {
+                        Long id = Long.valueOf((String) productId);
+                        productRepository.incrementStock(id, quantity);
+                        productCache.evict(id);
+                        changedIds.add(id);
+                    }
+                });
+                // One event per product for the net change of the whole batch
+                productRepository.findAllById(changedIds)
+                        .forEach(product -> productOutbox.stockChanged(product.getId(), product.getStockQuantity()));
+                inventoryFlushRepository.deleteAppliedBefore(LocalDateTime.now().minus(flushRetention));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Another node applied this batch concurrently
+            return false;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.example.productservice.inventory.InStockIndex.IN_STOCK_KEY;
+
+// Live stock counts in Redis, changed atomically by server-side scripts. Every change is also added to a
+// hash of pending per-product deltas, which InventoryWriteBehind periodically applies to products.stock_quantity.
+// Counts are loaded lazily from the table on first use, or for the whole catalog by InStockReconciler. All keys share the {inventory} hash tag so the
+// multi-key scripts also run on Redis Cluster.
+@Component
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "redis")
+public class RedisInventoryLedger implements InventoryLedger {
+    
+    static final String STOCK_KEY_PREFIX = "{inventory}:stock:";
+    static final String PENDING_DELTAS_KEY = "{inventory}:deltas";
+    static final String INFLIGHT_DELTAS_KEY = "{inventory}:deltas:inflight";
+    static final String FLUSHING_KEY = "{inventory}:flushing";
+    static final String FLUSH_EPOCH_KEY = "{inventory}:flush-epoch";
+    
+    private static final long NOT_LOADED = -2;
+    private static final int SEED_ATTEMPTS = 50;
+    private static final long SEED_RETRY_MILLIS = 20;
+    
+    private static final RedisScript<Long> RESERVE_SCRIPT = script("reserve.lua");
+    private static final RedisScript<Long> RESERVE_ALL_SCRIPT = script("reserve-all.lua");
+    private static final RedisScript<Long> RELEASE_SCRIPT = script("release.lua");
+    private static final RedisScript<Long> SET_SCRIPT = script("set.lua");
+    private static final RedisScript<Long> SEED_SCRIPT = script("seed.lua");
+    
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+    private final InStockIndex inStockIndex;
+    
+    public RedisInventoryLedger(StringRedisTemplate redisTemplate, ProductRepository productRepository,
+                                InStockIndex inStockIndex) {
+        this.redisTemplate = redisTemplate;
+        this.productRepository = productRepository;
+        this.inStockIndex = inStockIndex;
+    }
+    
+    private static RedisScript<Long> script(String name) {
+        return RedisScript.of(new ClassPathResource("inventory/" + name), Long.class);
+    }
+    
+    static String stockKey(Long productId) {
+        return STOCK_KEY_PREFIX + productId;
+    }
+    
+    @Override
+    public Optional<Integer> reserve(Long productId, int quantity) {
+        List<String> keys = List.of(stockKey(productId), PENDING_DELTAS_KEY, IN_STOCK_KEY);
+        long remaining = redisTemplate.execute(RESERVE_SCRIPT, keys, productId.toString(), String.valueOf(quantity));
+        if (remaining == NOT_LOADED) {
+            if (!seed(List.of(productId))) {
+                return Optional.empty();
+            }
+            remaining = redisTemplate.execute(RESERVE_SCRIPT, keys, productId.toString(), String.valueOf(quantity));
+        }
+        return remaining >= 0 ? Optional.of((int) remaining) : Optional.empty();
+    }
+    
+    @Override
+    public boolean reserveAll(Map<Long, Integer> quantities) {
+        List<String> keys = new ArrayList<>(quantities.size() + 2);
+        List<String> args = new ArrayList<>(quantities.size() * 2);
+        keys.add(PENDING_DELTAS_KEY);
+        keys.add(IN_STOCK_KEY);
+        quantities.keySet().forEach(productId -> {
+            keys.add(stockKey(productId));
+            args.add(productId.toString());
+        });
+        quantities.values().forEach(quantity -> args.add(quantity.toString()));
+        
+        long result = redisTemplate.execute(RESERVE_ALL_SCRIPT, keys, args.toArray());
+        if (result == NOT_LOADED) {
+            if (!seed(quantities.keySet())) {
+                return false;
+            }
+            result = redisTemplate.execute(RESERVE_ALL_SCRIPT, keys, args.toArray());
+        }
+        if (result != 1) {
+            return false;
+        }
+        
+        // Redis is not part of the database transaction, so hand the stock back if the caller rolls back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        quantities.forEach(RedisInventoryLedger.this::applyRelease);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+    
+    @Override
+    public void release(Long productId, int quantity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyRelease(productId, quantity);
+                }
+            });
+        } else {
+            applyRelease(productId, quantity);
+        }
+    }
+    
+    private void applyRelease(Long productId, int quantity) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(stockKey(productId), PENDING_DELTAS_KEY, IN_STOCK_KEY),
+                productId.toString(), String.valueOf(quantity));
+    }
+    
+    @Override
+    public boolean setStock(Long productId, int quantity) {
+        List<String> keys = List.of(stockKey(productId), PENDING_DELTAS_KEY, IN_STOCK_KEY);
+        long result = redisTemplate.execute(SET_SCRIPT, keys, productId.toString(), String.valueOf(quantity));
+        if (result == NOT_LOADED) {
+            if (!seed(List.of(productId))) {
+                return false;
+            }
+            result = redisTemplate.execute(SET_SCRIPT, keys, productId.toString(), String.valueOf(quantity));
+        }
+        return result == 1;
+    }
+    
+    @Override
+    public void remove(Long productId) {
+        redisTemplate.delete(stockKey(productId));
+        redisTemplate.opsForHash().delete(PENDING_DELTAS_KEY, productId.toString());
+        inStockIndex.remove(productId);
+    }
+    
+    // Loading the count from the table also places the product in the index
+    @Override
+    public void track(List<Product> products) {
+        if (!products.isEmpty()) {
+            seed(products.stream().map(Product::getId).toList());
+        }
+    }
+    
+    @Override
+    public boolean isWriteBehind() {
+        return true;
+    }
+    
+    // Loads the counts as table value plus deltas not yet written back; counts already loaded are kept.
+    // The script refuses if a flush ran in between, because the table values could then already include
+    // some of those deltas. Returns false if any of the products does not exist.
+    boolean seed(Collection<Long> productIds) {
+        for (int attempt = 0; attempt < SEED_ATTEMPTS; attempt++) {
+            String epoch = Optional.ofNullable(redisTemplate.opsForValue().get(FLUSH_EPOCH_KEY)).orElse("0");
+            List<Product> products = productRepository.findAllById(productIds);
+            if (products.size() != productIds.size()) {
+                return false;
+            }
+            List<String> keys = new ArrayList<>(products.size() + 4);
+            List<String> args = new ArrayList<>(products.size() * 2 + 1);
+            keys.addAll(List.of(PENDING_DELTAS_KEY, FLUSH_EPOCH_KEY, FLUSHING_KEY, IN_STOCK_KEY));
+            args.add(epoch);
+            products.forEach(product -> {
+                keys.add(stockKey(product.getId()));
+                args.add(product.getId().toString());
+            });
+            products.forEach(product -> args.add(product.getStockQuantity().toString()));
+            Long seeded = redisTemplate.execute(SEED_SCRIPT, keys, args.toArray());
+            if (seeded == 1) {
+                return true;
+            }
+            try {
+                Thread.sleep(SEED_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new RuntimeException("Could not load stock for products " + productIds + " while inventory is being flushed");
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.productservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Records a reservation id chosen by the client. Written first by the reserve call, so a retried reserve gets
+// the same reservation back; written as released by a release that arrived before its reserve (say, after
+// the client's reserve call timed out), so that reserve is refused instead of holding stock until it expires
+@Entity
+@Table(name = "client_reservations", indexes = {
+    @Index(name = "idx_client_reservations_created_at", columnList = "created_at")
+})
+public class ClientReservation {
+    
+    @Id
+    @Column(name = "reservation_id", length = 36)
+    private String reservationId;
+    
+    @Column(nullable = false)
+    private boolean released;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Default constructor
+    public ClientReservation() {}
+    
+    // Getters and Setters
+    public String getReservationId() {
+        return reservationId;
+    }
+    
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+    
+    public boolean isReleased() {
+        return released;
+    }
+    
+    public void setReleased(boolean released) {
+        this.released = released;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
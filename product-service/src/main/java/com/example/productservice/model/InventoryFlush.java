@@ -0,0 +1,39 @@
+package com.example.productservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Marks a write-behind batch of Redis inventory deltas as applied, so a batch retried after a crash is not applied twice
+@Entity
+@Table(name = "inventory_flushes", indexes = {
+    @Index(name = "idx_inventory_flushes_applied_at", columnList = "applied_at")
+})
+public class InventoryFlush {
+    
+    @Id
+    @Column(name = "batch_id", length = 36)
+    private String batchId;
+    
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+    
+    // Default constructor
+    public InventoryFlush() {}
+    
+    // Getters and Setters
+    public String getBatchId() {
+        return batchId;
+    }
+    
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+    
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+    
+    public void setAppliedAt(LocalDateTime appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -34,6 +34,11 @@ public class Product {
     @Column(nullable = false)
     private String category;
     
+    // Bumped on every change, including the bulk stock updates in ProductRepository; used as the ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Default constructor
     public Product() {}
     
@@ -95,6 +100,14 @@ public class Product {
         this.category = category;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "Product{" +
@@ -104,6 +117,7 @@ public class Product {
                 ", price=" + price +
                 ", stockQuantity=" + stockQuantity +
                 ", category='" + category + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,122 @@
+package com.example.productservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Outbox row appended in the same transaction as the product change it describes. The id follows insert
+// order, not commit order; the event's offset is its position, which ProductEventSequencer assigns once the
+// row has committed, so positions ascend in the order the events became visible.
+@Entity
+@Table(name = "product_events", indexes = {
+    @Index(name = "idx_product_events_position", columnList = "position", unique = true),
+    @Index(name = "idx_product_events_published_at", columnList = "published_at, position")
+})
+public class ProductEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long productId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProductEventType type;
+    
+    // Full product as JSON for CREATED and UPDATED
+    @Column(length = 4000)
+    private String payload;
+    
+    // New stock for STOCK_CHANGED, also set for CREATED and UPDATED
+    private Integer stockQuantity;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    
+    // Null until sequenced
+    @Column(name = "position")
+    private Long position;
+    
+    // Default constructor
+    public ProductEvent() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Constructor with fields
+    public ProductEvent(Long productId, ProductEventType type, String payload, Integer stockQuantity) {
+        this();
+        this.productId = productId;
+        this.type = type;
+        this.payload = payload;
+        this.stockQuantity = stockQuantity;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public ProductEventType getType() {
+        return type;
+    }
+    
+    public void setType(ProductEventType type) {
+        this.type = type;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+    
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+    
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+    
+    public Long getPosition() {
+        return position;
+    }
+    
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.productservice.model;
+
+import jakarta.persistence.*;
+
+// Last position handed out to a product event: a single row, locked by each sequencing run so replicas
+// sequencing at the same time take turns instead of handing out a position twice.
+@Entity
+@Table(name = "product_event_sequence")
+public class ProductEventSequence {
+    
+    public static final long ID = 1L;
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "last_position", nullable = false)
+    private long lastPosition;
+    
+    // Default constructor
+    public ProductEventSequence() {}
+    
+    // Constructor with fields
+    public ProductEventSequence(long lastPosition) {
+        this.id = ID;
+        this.lastPosition = lastPosition;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public long getLastPosition() {
+        return lastPosition;
+    }
+    
+    public void setLastPosition(long lastPosition) {
+        this.lastPosition = lastPosition;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.productservice.model;
+
+public enum ProductEventType {
+    CREATED,
+    UPDATED,
+    STOCK_CHANGED,
+    DELETED
+}
@@ -0,0 +1,48 @@
+package com.example.productservice.model;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Product properties a list endpoint can be asked for with fields=, named as in the JSON of Product
+public enum ProductField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    PRICE("price"),
+    STOCK_QUANTITY("stockQuantity"),
+    CATEGORY("category"),
+    VERSION("version");
+    
+    private final String property;
+    
+    ProductField(String property) {
+        this.property = property;
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+    
+    // Parses a comma-separated list such as "name,price"; the id is always included
+    public static Set<ProductField> parse(String fields) {
+        Set<ProductField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(fromProperty(trimmed));
+        }
+        return parsed;
+    }
+    
+    private static ProductField fromProperty(String property) {
+        for (ProductField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown product field: " + property.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.productservice.model;
+
+public enum ReservationStatus {
+    RESERVED,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,125 @@
+package com.example.productservice.outbox;
+
+import com.example.productservice.model.ProductEvent;
+import com.example.productservice.repository.ProductEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.productservice.config.RabbitMQConfig.PRODUCT_EVENTS_EXCHANGE;
+
+// Publishes sequenced outbox events in offset order, a batch at a time, with the product id in the routing key
+// (product.<id>). A batch is marked published only after the broker confirmed all of it, so delivery is
+// at least once; the message id is the event offset for consumers to drop repeats. One replica relays at
+// a time, holding a lease in Redis that it renews before every batch, so events of the same product are
+// never published out of order.
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true")
+public class ProductEventRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductEventRelay.class);
+    
+    static final String LEASE_KEY = "outbox:relay-lease";
+    
+    private static final RedisScript<Long> RENEW_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("outbox/renew-lease.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("outbox/release-lease.lua"), Long.class);
+    
+    private final ProductEventRepository productEventRepository;
+    private final ProductOutbox productOutbox;
+    private final RabbitTemplate rabbitTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Duration lease;
+    
+    public ProductEventRelay(ProductEventRepository productEventRepository,
+                             ProductOutbox productOutbox,
+                             RabbitTemplate rabbitTemplate,
+                             StringRedisTemplate redisTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${outbox.relay.batch-size:500}") int batchSize,
+                             @Value("${outbox.relay.confirm-timeout:PT5S}") Duration confirmTimeout,
+                             @Value("${outbox.relay.lease:PT30S}") Duration lease) {
+        this.productEventRepository = productEventRepository;
+        this.productOutbox = productOutbox;
+        this.rabbitTemplate = rabbitTemplate;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.lease = lease;
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:PT0.5S}")
+    public void relay() {
+        String owner = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LEASE_KEY, owner, lease))) {
+            return;
+        }
+        try {
+            List<ProductEvent> events;
+            do {
+                // A run that lost its lease (a pause longer than the lease) stops before another replica's
+                // batches could be overtaken by its own
+                if (!renewLease(owner)) {
+                    logger.warn("Lost the outbox relay lease; leaving the remaining events to its new holder");
+                    break;
+                }
+                events = productEventRepository.findByPublishedAtIsNullAndPositionIsNotNullOrderByPositionAsc(Limit.of(batchSize));
+                if (events.isEmpty()) {
+                    break;
+                }
+                publish(events);
+                List<Long> ids = events.stream().map(ProductEvent::getId).toList();
+                transactionTemplate.executeWithoutResult(status ->
+                        productEventRepository.markPublished(ids, LocalDateTime.now()));
+                logger.debug("Published {} product events up to offset {}", events.size(),
+                        events.get(events.size() - 1).getPosition());
+            } while (events.size() == batchSize);
+        } catch (RuntimeException e) {
+            // Left unpublished; the next run starts again from the oldest of them
+            logger.warn("Could not publish product events: {}", e.getMessage());
+        } finally {
+            // Only drop the lease if it is still ours; checked and deleted in one script, so a lease taken
+            // over in between is never deleted
+            redisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(LEASE_KEY), owner);
+        }
+    }
+    
+    private boolean renewLease(String owner) {
+        Long renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(LEASE_KEY), owner,
+                String.valueOf(lease.toMillis()));
+        return renewed != null && renewed == 1;
+    }
+    
+    private void publish(List<ProductEvent> events) {
+        rabbitTemplate.invoke(operations -> {
+            for (ProductEvent event : events) {
+                operations.convertAndSend(PRODUCT_EVENTS_EXCHANGE, "product." + event.getProductId(),
+                        productOutbox.toDto(event), message -> {
+                            message.getMessageProperties().setMessageId(event.getPosition().toString());
+                            return message;
+                        });
+            }
+            operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.productservice.outbox;
+
+import com.example.productservice.model.ProductEvent;
+import com.example.productservice.model.ProductEventSequence;
+import com.example.productservice.repository.ProductEventRepository;
+import com.example.productservice.repository.ProductEventSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Gives committed outbox events their positions, the offsets consumers replay from. Ids are drawn when a row
+// is inserted, so a slow transaction (an import batch, a write-behind flush) can commit an event below ids
+// that readers have already passed. This only ever sees committed rows, and each one gets a position above
+// every position handed out before, so an event becomes readable at an offset no reader has passed yet.
+@Component
+public class ProductEventSequencer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductEventSequencer.class);
+    
+    private final ProductEventRepository productEventRepository;
+    private final ProductEventSequenceRepository sequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    
+    private volatile boolean started;
+    
+    public ProductEventSequencer(ProductEventRepository productEventRepository,
+                                 ProductEventSequenceRepository sequenceRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${outbox.sequencer.batch-size:500}") int batchSize) {
+        this.productEventRepository = productEventRepository;
+        this.sequenceRepository = sequenceRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.sequencer.interval:PT0.1S}")
+    public void sequence() {
+        try {
+            start();
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> sequenceBatch());
+            } while (batch == batchSize);
+        } catch (RuntimeException e) {
+            // Left without positions; the next run picks them up again
+            logger.warn("Could not sequence product events: {}", e.getMessage());
+        }
+    }
+    
+    private void start() {
+        if (started) {
+            return;
+        }
+        if (!sequenceRepository.existsById(ProductEventSequence.ID)) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        sequenceRepository.save(new ProductEventSequence(0L)));
+            } catch (DataIntegrityViolationException e) {
+                // Another replica created it first
+            }
+        }
+        started = true;
+    }
+    
+    // Reads the unsequenced events only once the sequence row is locked, so it sees every event a
+    // previous run, on any replica, left without a position
+    private int sequenceBatch() {
+        ProductEventSequence sequence = sequenceRepository.findWithLockById(ProductEventSequence.ID).orElseThrow();
+        List<ProductEvent> events = productEventRepository.findByPositionIsNullOrderByIdAsc(Limit.of(batchSize));
+        long position = sequence.getLastPosition();
+        for (ProductEvent event : events) {
+            event.setPosition(++position);
+        }
+        sequence.setLastPosition(position);
+        return events.size();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.productservice.outbox;
+
+import com.example.productservice.dto.ProductEventDto;
+import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductEvent;
+import com.example.productservice.model.ProductEventType;
+import com.example.productservice.repository.ProductEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Appends product change events to the product_events table. Appends must join the transaction that makes
+// the change, so an event exists exactly when its change committed. ProductEventRelay publishes them to the
+// broker; consumers can also replay them from any offset through eventsAfter. An event's offset is the
+// position ProductEventSequencer gives it after commit; until then it is neither replayed nor published.
+@Component
+public class ProductOutbox {
+    
+    private final ProductEventRepository productEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final boolean relayEnabled;
+    
+    public ProductOutbox(ProductEventRepository productEventRepository, ObjectMapper objectMapper,
+                         @Value("${outbox.retention:P7D}") Duration retention,
+                         @Value("${outbox.relay.enabled:false}") boolean relayEnabled) {
+        this.productEventRepository = productEventRepository;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.relayEnabled = relayEnabled;
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productSaved(ProductEventType type, Product product) {
+        productEventRepository.save(snapshot(type, product));
+    }
+    
+    // One JDBC batch for a whole import batch; the products must already carry their generated ids
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productsCreated(List<Product> products) {
+        productEventRepository.insertBatch(products.stream()
+                .map(product -> snapshot(ProductEventType.CREATED, product))
+                .toList());
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stockChanged(Long productId, int stockQuantity) {
+        productEventRepository.save(new ProductEvent(productId, ProductEventType.STOCK_CHANGED, null, stockQuantity));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productDeleted(Long productId) {
+        productEventRepository.save(new ProductEvent(productId, ProductEventType.DELETED, null, null));
+    }
+    
+    public List<ProductEventDto> eventsAfter(Long after, int limit) {
+        return productEventRepository.findByPositionGreaterThanOrderByPositionAsc(
+                        after != null ? after : 0L, Limit.of(limit))
+                .stream()
+                .map(this::toDto)
+                .toList();
+    }
+    
+    // Events committed but not sequenced yet will get a position above this one, so a reader that starts
+    // from it still replays them
+    public long latestOffset() {
+        return productEventRepository.findLatestOffset();
+    }
+    
+    public ProductEventDto toDto(ProductEvent event) {
+        Product product = null;
+        if (event.getPayload() != null) {
+            try {
+                product = objectMapper.readValue(event.getPayload(), Product.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Could not read product event " + event.getId(), e);
+            }
+        }
+        return new ProductEventDto(event.getPosition(), event.getProductId(), event.getType(), product,
+                event.getStockQuantity(), event.getCreatedAt());
+    }
+    
+    // Offsets stay replayable for the retention period; unpublished events are kept unless no relay runs
+    @Scheduled(initialDelayString = "${outbox.prune-interval:PT1H}", fixedDelayString = "${outbox.prune-interval:PT1H}")
+    @Transactional
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        if (relayEnabled) {
+            productEventRepository.deletePublishedBefore(cutoff);
+        } else {
+            productEventRepository.deleteCreatedBefore(cutoff);
+        }
+    }
+    
+    private ProductEvent snapshot(ProductEventType type, Product product) {
+        try {
+            return new ProductEvent(product.getId(), type, objectMapper.writeValueAsString(product),
+                    product.getStockQuantity());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not write product event for product " + product.getId(), e);
+        }
+    }
+}
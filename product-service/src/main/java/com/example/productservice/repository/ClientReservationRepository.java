@@ -0,0 +1,26 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.ClientReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClientReservationRepository extends JpaRepository<ClientReservation, String> {
+    
+    // Plain INSERT rather than save(): it runs at once, so a reserve and a release of the same id serialize on
+    // the primary key, and the later of the two fails instead of turning into an update
+    @Modifying
+    @Query(value = "INSERT INTO client_reservations (reservation_id, released, created_at) " +
+                   "VALUES (:reservationId, :released, :createdAt)", nativeQuery = true)
+    int insert(@Param("reservationId") String reservationId, @Param("released") boolean released,
+               @Param("createdAt") LocalDateTime createdAt);
+    
+    @Modifying
+    @Query("DELETE FROM ClientReservation r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
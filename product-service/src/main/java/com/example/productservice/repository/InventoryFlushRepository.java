@@ -0,0 +1,23 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.InventoryFlush;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface InventoryFlushRepository extends JpaRepository<InventoryFlush, String> {
+    
+    // Plain INSERT rather than save(): a concurrent duplicate must fail on the primary key, not turn into an update
+    @Modifying
+    @Query(value = "INSERT INTO inventory_flushes (batch_id, applied_at) VALUES (:batchId, :appliedAt)", nativeQuery = true)
+    int insert(@Param("batchId") String batchId, @Param("appliedAt") LocalDateTime appliedAt);
+    
+    @Modifying
+    @Query("DELETE FROM InventoryFlush f WHERE f.appliedAt < :cutoff")
+    int deleteAppliedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,38 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.ProductEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductEventRepository extends JpaRepository<ProductEvent, Long>, ProductEventRepositoryCustom {
+    
+    List<ProductEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Limit limit);
+    
+    List<ProductEvent> findByPositionIsNullOrderByIdAsc(Limit limit);
+    
+    List<ProductEvent> findByPublishedAtIsNullAndPositionIsNotNullOrderByPositionAsc(Limit limit);
+    
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM ProductEvent e")
+    long findLatestOffset();
+    
+    @Modifying
+    @Query("UPDATE ProductEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    @Modifying
+    @Query("DELETE FROM ProductEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Modifying
+    @Query("DELETE FROM ProductEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
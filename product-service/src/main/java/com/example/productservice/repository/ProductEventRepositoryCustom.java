@@ -0,0 +1,11 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.ProductEvent;
+
+import java.util.List;
+
+public interface ProductEventRepositoryCustom {
+    
+    // Inserts the events as a single JDBC batch; their ids are not read back
+    void insertBatch(List<ProductEvent> events);
+}
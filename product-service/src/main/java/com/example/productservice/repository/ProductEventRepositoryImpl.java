@@ -0,0 +1,48 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.ProductEvent;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+public class ProductEventRepositoryImpl implements ProductEventRepositoryCustom {
+    
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO product_events (product_id, type, payload, stock_quantity, created_at) VALUES (?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ProductEventRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void insertBatch(List<ProductEvent> events) {
+        // Hibernate cannot batch IDENTITY inserts, so go straight to JDBC like ProductRepositoryImpl.insertBatch
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProductEvent event = events.get(i);
+                ps.setLong(1, event.getProductId());
+                ps.setString(2, event.getType().name());
+                ps.setString(3, event.getPayload());
+                if (event.getStockQuantity() != null) {
+                    ps.setInt(4, event.getStockQuantity());
+                } else {
+                    ps.setNull(4, Types.INTEGER);
+                }
+                ps.setTimestamp(5, Timestamp.valueOf(event.getCreatedAt()));
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+}
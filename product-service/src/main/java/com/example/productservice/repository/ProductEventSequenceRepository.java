@@ -0,0 +1,17 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.ProductEventSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProductEventSequenceRepository extends JpaRepository<ProductEventSequence, Long> {
+    
+    // Held until the sequencing run commits, so only one replica sequences at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ProductEventSequence> findWithLockById(Long id);
+}
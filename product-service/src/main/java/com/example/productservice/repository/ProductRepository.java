@@ -1,14 +1,18 @@
 package com.example.productservice.repository;
 
 import com.example.productservice.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     
     List<Product> findByCategory(String category);
     
@@ -17,4 +21,29 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByName(String name);
     
     List<Product> findByStockQuantityGreaterThan(Integer quantity);
+    
+    // Keyset pagination: seeks past the last seen id instead of counting an OFFSET
+    List<Product> findByStockQuantityGreaterThanAndIdGreaterThanOrderByIdAsc(Integer stockQuantity, Long id, Limit limit);
+    
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    // Conditional decrement in a single statement; returns 0 when the product is missing or short on stock
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.version = p.version + 1 " +
+           "WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+    
+    // Changes whenever a product is added, removed or modified: a removal lowers the count, an insert raises
+    // the max id and any update raises the version sum
+    @Query("SELECT CONCAT(CAST(COUNT(p) AS String), '-', CAST(COALESCE(SUM(p.version), 0) AS String), '-', " +
+           "CAST(COALESCE(MAX(p.id), 0) AS String)) FROM Product p")
+    String findCatalogVersion();
 }
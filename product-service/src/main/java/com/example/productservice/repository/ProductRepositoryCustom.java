@@ -0,0 +1,30 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductField;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface ProductRepositoryCustom {
+    
+    // Scrolls all products in id order without accumulating them in a persistence context
+    void scrollAll(int fetchSize, Consumer<Product> consumer);
+    
+    // Inserts the products as a single JDBC batch and assigns their generated ids
+    void insertBatch(List<Product> products);
+    
+    // Projections selecting only the given columns, in id order; each row maps property name to value
+    List<Map<String, Object>> findAllProjected(Set<ProductField> fields);
+    
+    List<Map<String, Object>> findByCategoryProjected(String category, Set<ProductField> fields);
+    
+    List<Map<String, Object>> findByNameContainingIgnoreCaseProjected(String name, Set<ProductField> fields);
+    
+    List<Map<String, Object>> findByStockQuantityGreaterThanProjected(Integer stockQuantity, Set<ProductField> fields);
+    
+    List<Map<String, Object>> findByIdInProjected(Collection<Long> ids, Set<ProductField> fields);
+}
@@ -0,0 +1,154 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (name, description, price, stock_quantity, category, version) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private final SessionFactory sessionFactory;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public ProductRepositoryImpl(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void scrollAll(int fetchSize, Consumer<Product> consumer) {
+        // A stateless session keeps no first-level cache, so heap use does not grow with the row count
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+             ScrollableResults<Product> results = session
+                     .createQuery("SELECT p FROM Product p ORDER BY p.id", Product.class)
+                     .setFetchSize(fetchSize)
+                     .setReadOnly(true)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept(results.get());
+            }
+        }
+    }
+    
+    @Override
+    public void insertBatch(List<Product> products) {
+        // Hibernate cannot batch IDENTITY inserts, so go straight to JDBC and read the keys back from the batch
+        // New rows start at version 0; set on the entities up front so binding has no side effects on a retried batch
+        products.forEach(product -> product.setVersion(0L));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PRODUCT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        ps.setString(1, product.getName());
+                        ps.setString(2, product.getDescription());
+                        ps.setBigDecimal(3, product.getPrice());
+                        ps.setInt(4, product.getStockQuantity());
+                        ps.setString(5, product.getCategory());
+                        ps.setLong(6, product.getVersion());
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> findAllProjected(Set<ProductField> fields) {
+        return project(fields, null);
+    }
+    
+    @Override
+    public List<Map<String, Object>> findByCategoryProjected(String category, Set<ProductField> fields) {
+        return project(fields, (cb, product) -> cb.equal(product.get("category"), category));
+    }
+    
+    @Override
+    public List<Map<String, Object>> findByNameContainingIgnoreCaseProjected(String name, Set<ProductField> fields) {
+        String pattern = "%" + name.toLowerCase(Locale.ROOT) + "%";
+        return project(fields, (cb, product) -> cb.like(cb.lower(product.get("name")), pattern));
+    }
+    
+    @Override
+    public List<Map<String, Object>> findByStockQuantityGreaterThanProjected(Integer stockQuantity, Set<ProductField> fields) {
+        return project(fields, (cb, product) -> cb.greaterThan(product.get("stockQuantity"), stockQuantity));
+    }
+    
+    @Override
+    public List<Map<String, Object>> findByIdInProjected(Collection<Long> ids, Set<ProductField> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return project(fields, (cb, product) -> product.get("id").in(ids));
+    }
+    
+    // A tuple query selects just the requested columns and never builds or caches Product entities
+    private List<Map<String, Object>> project(Set<ProductField> fields,
+                                              BiFunction<CriteriaBuilder, Root<Product>, Predicate> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (ProductField field : fields) {
+            selections.add(product.get(field.getProperty()).alias(field.getProperty()));
+        }
+        query.multiselect(selections).orderBy(cb.asc(product.get("id")));
+        if (filter != null) {
+            query.where(filter.apply(cb, product));
+        }
+        
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> projected = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (ProductField field : fields) {
+                values.put(field.getProperty(), row.get(field.getProperty()));
+            }
+            projected.add(values);
+        }
+        return projected;
+    }
+}
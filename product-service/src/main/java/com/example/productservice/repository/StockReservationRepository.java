@@ -0,0 +1,26 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.ReservationStatus;
+import com.example.productservice.model.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    
+    List<StockReservation> findByReservationId(String reservationId);
+    
+    List<StockReservation> findByStatusAndExpiresAtBeforeOrderByProductId(ReservationStatus status, LocalDateTime time, Limit limit);
+    
+    // Compare-and-set on the status so concurrent confirm/release/expiry calls apply at most once
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+}
@@ -0,0 +1,87 @@
+package com.example.productservice.search;
+
+import java.util.Arrays;
+
+// Sorted, duplicate-free list of product ids backed by a primitive array.
+// Ids are mostly appended in increasing order, so adds are amortized O(1).
+class PostingList {
+    
+    private final String term;
+    private long[] ids = new long[4];
+    private int size;
+    
+    PostingList(String term) {
+        this.term = term;
+    }
+    
+    String term() {
+        return term;
+    }
+    
+    void add(long id) {
+        if (size > 0 && ids[size - 1] < id) {
+            append(id);
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+    
+    private void append(long id) {
+        ensureCapacity();
+        ids[size++] = id;
+    }
+    
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+    }
+    
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+    
+    // Keeps only the ids of candidates (sorted) that are also in this list
+    long[] intersect(long[] candidates) {
+        long[] result = new long[Math.min(candidates.length, size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < candidates.length && j < size) {
+            if (candidates[i] == ids[j]) {
+                result[count++] = candidates[i];
+                i++;
+                j++;
+            } else if (candidates[i] < ids[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.productservice.search;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process inverted index over product name, category and description.
+// Name and category tokens are indexed with their edge n-grams so partially typed words match;
+// description tokens are indexed whole to keep the index size proportional to the catalog.
+@Component
+public class ProductSearchIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+    
+    private final ProductRepository productRepository;
+    private final int minGram;
+    private final int maxGram;
+    private final int rebuildFetchSize;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile IndexState state = new IndexState();
+    private volatile boolean ready;
+    
+    // Ids written while a rebuild is scanning the table; re-indexed once the new state is swapped in
+    private volatile Set<Long> changedDuringRebuild;
+    
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${search.index.min-gram:1}") int minGram,
+                              @Value("${search.index.max-gram:15}") int maxGram,
+                              @Value("${product.stream.fetch-size:500}") int rebuildFetchSize) {
+        this.productRepository = productRepository;
+        this.minGram = minGram;
+        this.maxGram = maxGram;
+        this.rebuildFetchSize = rebuildFetchSize;
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Returns the ids of products matching every query token, in ascending id order
+    public Optional<List<Long>> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<PostingList> postings = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                PostingList posting = state.postings.get(token);
+                if (posting == null) {
+                    return Optional.of(List.of());
+                }
+                postings.add(posting);
+            }
+            // Start from the rarest term so every intersection step shrinks the candidate set
+            postings.sort(Comparator.comparingInt(PostingList::size));
+            long[] candidates = postings.get(0).toArray();
+            for (int i = 1; i < postings.size() && candidates.length > 0; i++) {
+                candidates = postings.get(i).intersect(candidates);
+            }
+            return Optional.of(Arrays.stream(candidates).boxed().toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public void index(Product product) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(product.getId());
+        }
+        String[] terms = termsOf(product);
+        lock.writeLock().lock();
+        try {
+            state.remove(product.getId());
+            state.add(product.getId(), terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long productId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(productId);
+        }
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+    
+    // Periodic rebuild picks up writes made through other replicas
+    @Scheduled(initialDelayString = "${search.index.rebuild-interval:PT5M}",
+               fixedDelayString = "${search.index.rebuild-interval:PT5M}")
+    public synchronized void rebuild() {
+        long startNanos = System.nanoTime();
+        changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        
+        IndexState rebuilt = new IndexState();
+        productRepository.scrollAll(rebuildFetchSize, product -> rebuilt.add(product.getId(), termsOf(product)));
+        
+        lock.writeLock().lock();
+        try {
+            state = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Set<Long> changed = changedDuringRebuild;
+        changedDuringRebuild = null;
+        if (!changed.isEmpty()) {
+            Map<Long, Product> current = new HashMap<>();
+            productRepository.findAllById(changed).forEach(product -> current.put(product.getId(), product));
+            changed.forEach(id -> {
+                if (current.containsKey(id)) {
+                    index(current.get(id));
+                } else {
+                    remove(id);
+                }
+            });
+        }
+        
+        ready = true;
+        logger.info("Rebuilt product search index with {} products and {} terms in {} ms",
+                rebuilt.documentTerms.size(), rebuilt.postings.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+    
+    private String[] termsOf(Product product) {
+        Set<String> terms = new LinkedHashSet<>();
+        addWithEdgeGrams(terms, product.getName());
+        addWithEdgeGrams(terms, product.getCategory());
+        terms.addAll(tokenize(product.getDescription()));
+        return terms.toArray(new String[0]);
+    }
+    
+    private void addWithEdgeGrams(Set<String> terms, String text) {
+        for (String token : tokenize(text)) {
+            for (int length = minGram; length <= Math.min(token.length(), maxGram); length++) {
+                terms.add(token.substring(0, length));
+            }
+            terms.add(token);
+        }
+    }
+    
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+    
+    private static final class IndexState {
+        
+        private final Map<String, PostingList> postings = new HashMap<>();
+        
+        // Holds the posting lists themselves rather than term strings so removal needs no extra copies
+        private final Map<Long, PostingList[]> documentTerms = new HashMap<>();
+        
+        void add(Long id, String[] terms) {
+            PostingList[] documentPostings = new PostingList[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                PostingList posting = postings.computeIfAbsent(terms[i], PostingList::new);
+                posting.add(id);
+                documentPostings[i] = posting;
+            }
+            documentTerms.put(id, documentPostings);
+        }
+        
+        void remove(Long id) {
+            PostingList[] documentPostings = documentTerms.remove(id);
+            if (documentPostings == null) {
+                return;
+            }
+            for (PostingList posting : documentPostings) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(posting.term());
+                }
+            }
+        }
+    }
+}
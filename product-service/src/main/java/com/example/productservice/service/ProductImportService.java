@@ -0,0 +1,144 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductImportRejectionDto;
+import com.example.productservice.dto.ProductImportReportDto;
+import com.example.productservice.importer.CsvProductRowReader;
+import com.example.productservice.importer.NdjsonProductRowReader;
+import com.example.productservice.importer.ProductRow;
+import com.example.productservice.importer.ProductRowReader;
+import com.example.productservice.inventory.InventoryLedger;
+import com.example.productservice.model.Product;
+import com.example.productservice.outbox.ProductOutbox;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.search.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportService {
+    
+    public enum Format { CSV, NDJSON }
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+    
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final InventoryLedger inventoryLedger;
+    private final ProductOutbox productOutbox;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedRejections;
+    
+    @Autowired
+    public ProductImportService(ProductRepository productRepository, ProductSearchIndex productSearchIndex,
+                                InventoryLedger inventoryLedger, ProductOutbox productOutbox, CacheManager cacheManager, TransactionTemplate transactionTemplate,
+                                Validator validator, ObjectMapper objectMapper,
+                                @Value("${product.import.batch-size:1000}") int batchSize,
+                                @Value("${product.import.max-reported-rejections:100}") int maxReportedRejections) {
+        this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.inventoryLedger = inventoryLedger;
+        this.productOutbox = productOutbox;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+    
+    public ProductImportReportDto importProducts(InputStream input, Format format) throws IOException {
+        long startNanos = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ProductRowReader rowReader = format == Format.CSV
+                ? new CsvProductRowReader(reader)
+                : new NdjsonProductRowReader(reader, objectMapper.reader());
+        
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<ProductImportRejectionDto> rejectedRows = new ArrayList<>();
+        long importedCount = 0;
+        long rejectedCount = 0;
+        
+        try {
+            ProductRow row;
+            while ((row = rowReader.nextRow()) != null) {
+                String error = row.isRejected() ? row.getError() : validate(row.getProduct());
+                if (error != null) {
+                    rejectedCount++;
+                    if (rejectedRows.size() < maxReportedRejections) {
+                        rejectedRows.add(new ProductImportRejectionDto(row.getRowNumber(), error));
+                    }
+                    continue;
+                }
+                
+                batch.add(row.getProduct());
+                if (batch.size() == batchSize) {
+                    importedCount += flush(batch);
+                }
+            }
+            importedCount += flush(batch);
+        } finally {
+            // Rows committed before a failure are visible, so the cache is cleared either way.
+            // One clear per import instead of one per product; it also drops cached "not found" entries.
+            if (importedCount > 0) {
+                cacheManager.getCache(ProductService.PRODUCT_CACHE).clear();
+            }
+        }
+        
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        double rowsPerSecond = elapsedMillis > 0 ? importedCount * 1000.0 / elapsedMillis : importedCount;
+        logger.info("Imported {} products ({} rejected) in {} ms, {} rows/s",
+                importedCount, rejectedCount, elapsedMillis, Math.round(rowsPerSecond));
+        return new ProductImportReportDto(importedCount, rejectedCount, elapsedMillis, rowsPerSecond, rejectedRows);
+    }
+    
+    private String validate(Product product) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        List<String> errors = violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+        // Category is NOT NULL in the table but carries no bean validation constraint
+        if (product.getCategory() == null || product.getCategory().isBlank()) {
+            errors.add("category: Category is required");
+        }
+        return errors.isEmpty() ? null : String.join("; ", errors);
+    }
+    
+    // Each batch commits on its own so a large feed never holds one long transaction open
+    private int flush(List<Product> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.insertBatch(batch);
+            productOutbox.productsCreated(batch);
+        });
+        batch.forEach(productSearchIndex::index);
+        inventoryLedger.track(List.copyOf(batch));
+        int inserted = batch.size();
+        batch.clear();
+        return inserted;
+    }
+}
@@ -1,57 +1,169 @@
 package com.example.productservice.service;
 
+import com.example.productservice.dto.ProductEventDto;
+import com.example.productservice.dto.ProductPageDto;
+import com.example.productservice.inventory.InStockIndex;
+import com.example.productservice.inventory.InventoryLedger;
 import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductEventType;
+import com.example.productservice.model.ProductField;
+import com.example.productservice.outbox.ProductOutbox;
 import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.search.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ProductService {
     
+    private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    
+    public static final String PRODUCT_CACHE = "products";
+    public static final int MAX_PAGE_SIZE = 500;
+    
     private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final InventoryLedger inventoryLedger;
+    private final InStockIndex inStockIndex;
+    private final CacheManager cacheManager;
+    private final ProductOutbox productOutbox;
+    private final int streamFetchSize;
     
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductSearchIndex productSearchIndex,
+                          InventoryLedger inventoryLedger, InStockIndex inStockIndex, CacheManager cacheManager,
+                          ProductOutbox productOutbox,
+                          @Value("${product.stream.fetch-size:500}") int streamFetchSize) {
         this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.inventoryLedger = inventoryLedger;
+        this.inStockIndex = inStockIndex;
+        this.cacheManager = cacheManager;
+        this.productOutbox = productOutbox;
+        this.streamFetchSize = streamFetchSize;
     }
     
-    @Cacheable(value = "products", key = "'all'")
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
     
-    @Cacheable(value = "products", key = "#id")
+    // The fields overloads return only the requested properties, selected as columns rather than entities
+    public List<Map<String, Object>> getAllProducts(Set<ProductField> fields) {
+        return productRepository.findAllProjected(fields);
+    }
+    
+    public String getCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+    
+    public ProductPageDto getProductsPage(Long after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<Product> products = productRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after : 0L, Limit.of(pageSize));
+        Long nextCursor = products.size() == pageSize ? products.get(products.size() - 1).getId() : null;
+        return new ProductPageDto(products, nextCursor);
+    }
+    
+    public void streamAllProducts(Consumer<Product> consumer) {
+        productRepository.scrollAll(streamFetchSize, consumer);
+    }
+    
+    public long getLatestEventOffset() {
+        return productOutbox.latestOffset();
+    }
+    
+    public List<ProductEventDto> getProductEvents(Long after, int limit) {
+        return productOutbox.eventsAfter(after, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+    }
+    
+    // sync: concurrent misses for the same id share one repository call
+    @Cacheable(value = PRODUCT_CACHE, key = "#id", sync = true)
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
     
-    @CacheEvict(value = "products", allEntries = true)
+    @CachePut(value = PRODUCT_CACHE, key = "#result.id")
+    @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productOutbox.productSaved(ProductEventType.CREATED, savedProduct);
+        productSearchIndex.index(savedProduct);
+        inventoryLedger.track(List.of(savedProduct));
+        return savedProduct;
     }
     
-    @CacheEvict(value = "products", allEntries = true)
+    @CachePut(value = PRODUCT_CACHE, key = "#id", unless = "#result == null")
+    @Transactional
     public Optional<Product> updateProduct(Long id, Product productDetails) {
         return productRepository.findById(id)
                 .map(existingProduct -> {
                     existingProduct.setName(productDetails.getName());
                     existingProduct.setDescription(productDetails.getDescription());
                     existingProduct.setPrice(productDetails.getPrice());
-                    existingProduct.setStockQuantity(productDetails.getStockQuantity());
                     existingProduct.setCategory(productDetails.getCategory());
-                    return productRepository.save(existingProduct);
+                    if (!inventoryLedger.isWriteBehind()) {
+                        existingProduct.setStockQuantity(productDetails.getStockQuantity());
+                    }
+                    // Flushed now so the event and the returned copy carry the incremented version
+                    Product savedProduct = productRepository.saveAndFlush(existingProduct);
+                    if (inventoryLedger.isWriteBehind()) {
+                        // The column catches up through the write-behind; the returned (and cached) copy shows the new value
+                        setStockAfterCommit(id, productDetails.getStockQuantity());
+                        savedProduct.setStockQuantity(productDetails.getStockQuantity());
+                    } else {
+                        inventoryLedger.track(List.of(savedProduct));
+                    }
+                    productOutbox.productSaved(ProductEventType.UPDATED, savedProduct);
+                    productSearchIndex.index(savedProduct);
+                    return savedProduct;
                 });
     }
     
-    @CacheEvict(value = "products", allEntries = true)
+    // Redis is not part of the transaction, so the counter is only set once the update committed, the way
+    // RedisInventoryLedger.release hands stock back. It fails only when the product was deleted in between;
+    // its counter is gone then, and so must be the copy cached with the new stock.
+    private void setStockAfterCommit(Long id, int stockQuantity) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!inventoryLedger.setStock(id, stockQuantity)) {
+                    logger.warn("Product {} was deleted before its new stock of {} could be set", id, stockQuantity);
+                    cacheManager.getCache(PRODUCT_CACHE).evict(id);
+                }
+            }
+        });
+    }
+    
+    @CacheEvict(value = PRODUCT_CACHE, key = "#id")
+    @Transactional
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            productOutbox.productDeleted(id);
+            productSearchIndex.remove(id);
+            inventoryLedger.remove(id);
             return true;
         }
         return false;
@@ -61,34 +173,111 @@ public class ProductService {
         return productRepository.findByCategory(category);
     }
     
+    public List<Map<String, Object>> getProductsByCategory(String category, Set<ProductField> fields) {
+        return productRepository.findByCategoryProjected(category, fields);
+    }
+    
     public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        // Fall back to the LIKE query while the index is still being built or the query has no tokens
+        if (!productSearchIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCase(name);
+        }
+        return productSearchIndex.search(name)
+                .map(ids -> {
+                    List<Product> products = new ArrayList<>(productRepository.findAllById(ids));
+                    products.sort(Comparator.comparing(Product::getId));
+                    return products;
+                })
+                .orElseGet(() -> productRepository.findByNameContainingIgnoreCase(name));
+    }
+    
+    public List<Map<String, Object>> searchProductsByName(String name, Set<ProductField> fields) {
+        if (!productSearchIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCaseProjected(name, fields);
+        }
+        return productSearchIndex.search(name)
+                .map(ids -> productRepository.findByIdInProjected(ids, fields))
+                .orElseGet(() -> productRepository.findByNameContainingIgnoreCaseProjected(name, fields));
     }
     
     public List<Product> getProductsInStock() {
-        return productRepository.findByStockQuantityGreaterThan(0);
+        // Fall back to the table scan until the in-stock index has been built against this Redis
+        if (!inStockIndex.isReady()) {
+            return productRepository.findByStockQuantityGreaterThan(0);
+        }
+        List<Product> products = new ArrayList<>();
+        List<Long> ids;
+        Long after = null;
+        do {
+            ids = inStockIndex.page(after, MAX_PAGE_SIZE);
+            products.addAll(loadProducts(ids));
+            after = ids.isEmpty() ? after : ids.get(ids.size() - 1);
+        } while (ids.size() == MAX_PAGE_SIZE);
+        return products;
+    }
+    
+    public List<Map<String, Object>> getProductsInStock(Set<ProductField> fields) {
+        if (!inStockIndex.isReady()) {
+            return productRepository.findByStockQuantityGreaterThanProjected(0, fields);
+        }
+        List<Map<String, Object>> products = new ArrayList<>();
+        List<Long> ids;
+        Long after = null;
+        do {
+            ids = inStockIndex.page(after, MAX_PAGE_SIZE);
+            products.addAll(productRepository.findByIdInProjected(ids, fields));
+            after = ids.isEmpty() ? after : ids.get(ids.size() - 1);
+        } while (ids.size() == MAX_PAGE_SIZE);
+        return products;
+    }
+    
+    public ProductPageDto getProductsInStockPage(Long after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (!inStockIndex.isReady()) {
+            List<Product> products = productRepository.findByStockQuantityGreaterThanAndIdGreaterThanOrderByIdAsc(
+                    0, after != null ? after : 0L, Limit.of(pageSize));
+            Long nextCursor = products.size() == pageSize ? products.get(products.size() - 1).getId() : null;
+            return new ProductPageDto(products, nextCursor);
+        }
+        List<Long> ids = inStockIndex.page(after, pageSize);
+        Long nextCursor = ids.size() == pageSize ? ids.get(ids.size() - 1) : null;
+        return new ProductPageDto(loadProducts(ids), nextCursor);
+    }
+    
+    // Takes bodies from the product cache and loads the misses with one query, keeping the order of ids.
+    // Ids of products deleted since they were indexed are skipped.
+    private List<Product> loadProducts(List<Long> ids) {
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            Product cached = cache.get(id, Product.class);
+            if (cached != null) {
+                products.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Product product : productRepository.findAllById(misses)) {
+                cache.put(product.getId(), product);
+                products.put(product.getId(), product);
+            }
+        }
+        return ids.stream().map(products::get).filter(Objects::nonNull).toList();
     }
     
+    @CacheEvict(value = PRODUCT_CACHE, key = "#productId")
     public boolean updateStockQuantity(Long productId, Integer quantity) {
-        return productRepository.findById(productId)
-                .map(product -> {
-                    product.setStockQuantity(quantity);
-                    productRepository.save(product);
-                    return true;
-                })
-                .orElse(false);
+        return inventoryLedger.setStock(productId, quantity);
     }
     
     public boolean reserveStock(Long productId, Integer quantity) {
-        return productRepository.findById(productId)
-                .map(product -> {
-                    if (product.getStockQuantity() >= quantity) {
-                        product.setStockQuantity(product.getStockQuantity() - quantity);
-                        productRepository.save(product);
-                        return true;
-                    }
-                    return false;
-                })
-                .orElse(false);
+        return reserveStockWithRemaining(productId, quantity).isPresent();
+    }
+    
+    // Cache eviction is left to the ledger: per reservation in database mode, per write-behind batch in redis mode
+    public Optional<Integer> reserveStockWithRemaining(Long productId, Integer quantity) {
+        return inventoryLedger.reserve(productId, quantity);
     }
 }
@@ -0,0 +1,175 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.StockReservationItemDto;
+import com.example.productservice.dto.StockReservationResponseDto;
+import com.example.productservice.inventory.InventoryLedger;
+import com.example.productservice.model.ClientReservation;
+import com.example.productservice.model.ReservationStatus;
+import com.example.productservice.model.StockReservation;
+import com.example.productservice.repository.ClientReservationRepository;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class StockReservationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+    
+    public static final int MAX_RESERVATION_ID_LENGTH = 36;
+    
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ClientReservationRepository clientReservationRepository;
+    private final InventoryLedger inventoryLedger;
+    private final Duration reservationTtl;
+    private final int sweepBatchSize;
+    
+    @Autowired
+    public StockReservationService(ProductRepository productRepository,
+                                   StockReservationRepository reservationRepository,
+                                   ClientReservationRepository clientReservationRepository,
+                                   InventoryLedger inventoryLedger,
+                                   @Value("${reservation.ttl:PT10M}") Duration reservationTtl,
+                                   @Value("${reservation.sweep-batch-size:500}") int sweepBatchSize) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.clientReservationRepository = clientReservationRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.reservationTtl = reservationTtl;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+    
+    // The client may choose the reservation id, so it can release a reservation whose reserve call it gave up on.
+    // Empty when stock is short, a product is unknown, or the client already released that id.
+    @Transactional
+    public Optional<StockReservationResponseDto> reserve(String clientReservationId, List<StockReservationItemDto> items) {
+        String reservationId;
+        if (clientReservationId != null) {
+            Optional<ClientReservation> known = clientReservationRepository.findById(clientReservationId);
+            if (known.isPresent()) {
+                // A retried call: answer with the reservation it made, unless the client released it since
+                return known.get().isReleased() ? Optional.empty() : existingReservation(clientReservationId);
+            }
+            // Before any stock is taken, so a release of this id racing the call waits for it to finish
+            clientReservationRepository.insert(clientReservationId, false, LocalDateTime.now());
+            reservationId = clientReservationId;
+        } else {
+            reservationId = UUID.randomUUID().toString();
+        }
+        
+        // Merge duplicate lines and lock rows in id order so concurrent batches cannot deadlock
+        Map<Long, Integer> requested = new TreeMap<>();
+        items.forEach(item -> requested.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        
+        // All-or-nothing: a single failed line rolls back the ones already applied
+        if (!inventoryLedger.reserveAll(requested)) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return Optional.empty();
+        }
+        
+        LocalDateTime expiresAt = LocalDateTime.now().plus(reservationTtl);
+        reservationRepository.saveAll(requested.entrySet().stream()
+                .map(entry -> new StockReservation(reservationId, entry.getKey(), entry.getValue(), expiresAt))
+                .collect(Collectors.toList()));
+        
+        return Optional.of(new StockReservationResponseDto(
+                reservationId, expiresAt, productRepository.findAllById(requested.keySet())));
+    }
+    
+    // Returns the reservation's resulting status, or empty if it does not exist
+    @Transactional
+    public Optional<ReservationStatus> confirm(String reservationId) {
+        List<StockReservation> lines = reservationRepository.findByReservationId(reservationId);
+        if (lines.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        for (StockReservation line : lines) {
+            if (line.getStatus() == ReservationStatus.CONFIRMED) {
+                continue;
+            }
+            if (reservationRepository.transition(line.getId(), ReservationStatus.RESERVED, ReservationStatus.CONFIRMED) == 0) {
+                // Lost a race with release or expiry; the stock is already back on the shelf
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return reservationRepository.findById(line.getId()).map(StockReservation::getStatus);
+            }
+        }
+        return Optional.of(ReservationStatus.CONFIRMED);
+    }
+    
+    private Optional<StockReservationResponseDto> existingReservation(String reservationId) {
+        List<StockReservation> lines = reservationRepository.findByReservationId(reservationId);
+        if (lines.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Long> productIds = lines.stream().map(StockReservation::getProductId).collect(Collectors.toList());
+        return Optional.of(new StockReservationResponseDto(
+                reservationId, lines.get(0).getExpiresAt(), productRepository.findAllById(productIds)));
+    }
+    
+    // Returns the reservation's resulting status, or empty if it does not exist. An id no reserve call has
+    // made yet is recorded as released, since its reserve may still be on the way (see ClientReservation).
+    @Transactional
+    public Optional<ReservationStatus> release(String reservationId) {
+        List<StockReservation> lines = reservationRepository.findByReservationId(reservationId);
+        if (lines.isEmpty()) {
+            if (reservationId.length() > MAX_RESERVATION_ID_LENGTH) {
+                return Optional.empty();
+            }
+            if (clientReservationRepository.findById(reservationId).isEmpty()) {
+                // Fails on the primary key if that reserve committed meanwhile; the client's retry then finds it
+                clientReservationRepository.insert(reservationId, true, LocalDateTime.now());
+            }
+            return Optional.of(ReservationStatus.RELEASED);
+        }
+        if (lines.stream().anyMatch(line -> line.getStatus() == ReservationStatus.CONFIRMED)) {
+            return Optional.of(ReservationStatus.CONFIRMED);
+        }
+        
+        returnToStock(lines, ReservationStatus.RELEASED);
+        return Optional.of(ReservationStatus.RELEASED);
+    }
+    
+    @Scheduled(fixedDelayString = "${reservation.sweep-interval:PT30S}")
+    @Transactional
+    public void releaseExpiredReservations() {
+        List<StockReservation> expired = reservationRepository.findByStatusAndExpiresAtBeforeOrderByProductId(
+                ReservationStatus.RESERVED, LocalDateTime.now(), Limit.of(sweepBatchSize));
+        if (!expired.isEmpty()) {
+            int released = returnToStock(expired, ReservationStatus.EXPIRED);
+            logger.info("Returned {} expired reservation lines to stock", released);
+        }
+        // Retries and late releases come within a client's call timeout, far sooner than the TTL
+        clientReservationRepository.deleteCreatedBefore(LocalDateTime.now().minus(reservationTtl));
+    }
+    
+    private int returnToStock(List<StockReservation> lines, ReservationStatus targetStatus) {
+        int released = 0;
+        for (StockReservation line : lines) {
+            // Only the caller that wins the status transition gives the quantity back
+            if (reservationRepository.transition(line.getId(), ReservationStatus.RESERVED, targetStatus) == 1) {
+                inventoryLedger.release(line.getProductId(), line.getQuantity());
+                released++;
+            }
+        }
+        return released;
+    }
+}
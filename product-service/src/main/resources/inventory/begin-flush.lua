@@ -0,0 +1,18 @@
+-- KEYS[1] pending deltas hash, KEYS[2] in-flight deltas hash, KEYS[3] flush-in-progress marker
+-- ARGV[1] id for a new batch
+-- Returns the id of the batch to apply: an unfinished one left by a crash first, otherwise a new one.
+-- Returns nil when there is nothing to flush
+if redis.call('EXISTS', KEYS[2]) == 1 then
+  local unfinished = redis.call('GET', KEYS[3])
+  if unfinished then
+    return unfinished
+  end
+  redis.call('SET', KEYS[3], ARGV[1])
+  return ARGV[1]
+end
+if redis.call('EXISTS', KEYS[1]) == 0 then
+  return false
+end
+redis.call('RENAME', KEYS[1], KEYS[2])
+redis.call('SET', KEYS[3], ARGV[1])
+return ARGV[1]
@@ -0,0 +1,8 @@
+-- KEYS[1] in-flight deltas hash, KEYS[2] flush-in-progress marker, KEYS[3] flush epoch
+-- ARGV[1] id of the applied batch
+if redis.call('GET', KEYS[2]) ~= ARGV[1] then
+  return 0
+end
+redis.call('DEL', KEYS[1], KEYS[2])
+redis.call('INCR', KEYS[3])
+return 1
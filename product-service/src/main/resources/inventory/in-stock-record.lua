@@ -0,0 +1,20 @@
+-- KEYS[1] in-stock set, KEYS[2] hash of the product version each member was last decided at
+-- ARGV triples: product id, stock quantity, product version
+-- A snapshot older than the one already applied is skipped, so out-of-order callers cannot undo a newer change.
+-- Returns the number of products applied
+local applied = 0
+for i = 1, #ARGV, 3 do
+  local id = ARGV[i]
+  local version = tonumber(ARGV[i + 2])
+  local known = redis.call('HGET', KEYS[2], id)
+  if not known or tonumber(known) < version then
+    redis.call('HSET', KEYS[2], id, version)
+    if tonumber(ARGV[i + 1]) > 0 then
+      redis.call('ZADD', KEYS[1], id, id)
+    else
+      redis.call('ZREM', KEYS[1], id)
+    end
+    applied = applied + 1
+  end
+end
+return applied
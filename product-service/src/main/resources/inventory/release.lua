@@ -0,0 +1,10 @@
+-- KEYS[1] stock key, KEYS[2] pending deltas hash, KEYS[3] in-stock set
+-- ARGV[1] product id, ARGV[2] quantity
+-- An unloaded stock key is left alone; seeding picks the pending delta up later
+if redis.call('EXISTS', KEYS[1]) == 1 then
+  if redis.call('INCRBY', KEYS[1], ARGV[2]) > 0 then
+    redis.call('ZADD', KEYS[3], ARGV[1], ARGV[1])
+  end
+end
+redis.call('HINCRBY', KEYS[2], ARGV[1], ARGV[2])
+return 1
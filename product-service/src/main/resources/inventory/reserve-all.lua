@@ -0,0 +1,21 @@
+-- KEYS[1] pending deltas hash, KEYS[2] in-stock set, KEYS[3..n+2] stock keys
+-- ARGV[1..n] product ids, ARGV[n+1..2n] quantities
+-- Returns 1 when every line was reserved, -1 if any is short, -2 if any stock has not been loaded yet
+local n = #KEYS - 2
+for i = 1, n do
+  local stock = redis.call('GET', KEYS[i + 2])
+  if not stock then
+    return -2
+  end
+  if tonumber(stock) < tonumber(ARGV[n + i]) then
+    return -1
+  end
+end
+for i = 1, n do
+  local quantity = tonumber(ARGV[n + i])
+  if redis.call('DECRBY', KEYS[i + 2], quantity) == 0 then
+    redis.call('ZREM', KEYS[2], ARGV[i])
+  end
+  redis.call('HINCRBY', KEYS[1], ARGV[i], -quantity)
+end
+return 1
@@ -0,0 +1,18 @@
+-- KEYS[1] stock key, KEYS[2] pending deltas hash, KEYS[3] in-stock set
+-- ARGV[1] product id, ARGV[2] quantity
+-- Returns the remaining stock, -1 if there is not enough, -2 if the stock has not been loaded yet
+local stock = redis.call('GET', KEYS[1])
+if not stock then
+  return -2
+end
+local quantity = tonumber(ARGV[2])
+local remaining = tonumber(stock) - quantity
+if remaining < 0 then
+  return -1
+end
+redis.call('SET', KEYS[1], remaining)
+redis.call('HINCRBY', KEYS[2], ARGV[1], -quantity)
+if remaining == 0 then
+  redis.call('ZREM', KEYS[3], ARGV[1])
+end
+return remaining
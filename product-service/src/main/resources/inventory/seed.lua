@@ -0,0 +1,26 @@
+-- KEYS[1] pending deltas hash, KEYS[2] flush epoch, KEYS[3] flush-in-progress marker, KEYS[4] in-stock set,
+-- KEYS[5..n+4] stock keys
+-- ARGV[1] epoch read before the database query, ARGV[2..n+1] product ids, ARGV[n+2..2n+1] quantities read
+-- Loads every stock key that is missing and puts each product in or out of the in-stock set by its live count.
+-- Returns 1 when all keys are loaded, 0 if a flush ran or is running and the database values may be stale
+local n = #KEYS - 4
+local stale = redis.call('EXISTS', KEYS[3]) == 1 or (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1]
+for i = 1, n do
+  if stale and redis.call('EXISTS', KEYS[i + 4]) == 0 then
+    return 0
+  end
+end
+for i = 1, n do
+  local id = ARGV[i + 1]
+  local stock = redis.call('GET', KEYS[i + 4])
+  if not stock then
+    stock = tonumber(ARGV[n + i + 1]) + tonumber(redis.call('HGET', KEYS[1], id) or '0')
+    redis.call('SET', KEYS[i + 4], stock)
+  end
+  if tonumber(stock) > 0 then
+    redis.call('ZADD', KEYS[4], id, id)
+  else
+    redis.call('ZREM', KEYS[4], id)
+  end
+end
+return 1
@@ -0,0 +1,17 @@
+-- KEYS[1] stock key, KEYS[2] pending deltas hash, KEYS[3] in-stock set
+-- ARGV[1] product id, ARGV[2] new quantity
+-- Records the difference as a delta so the database converges through the same write-behind path.
+-- Returns -2 if the stock has not been loaded yet
+local stock = redis.call('GET', KEYS[1])
+if not stock then
+  return -2
+end
+local quantity = tonumber(ARGV[2])
+redis.call('SET', KEYS[1], quantity)
+redis.call('HINCRBY', KEYS[2], ARGV[1], quantity - tonumber(stock))
+if quantity > 0 then
+  redis.call('ZADD', KEYS[3], ARGV[1], ARGV[1])
+else
+  redis.call('ZREM', KEYS[3], ARGV[1])
+end
+return 1
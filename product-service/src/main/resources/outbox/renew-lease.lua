@@ -0,0 +1,7 @@
+-- KEYS[1] relay lease
+-- ARGV[1] owner token, ARGV[2] lease in milliseconds
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+  return 0
+end
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return 1
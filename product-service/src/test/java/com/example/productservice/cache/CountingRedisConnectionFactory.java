@@ -0,0 +1,106 @@
+package com.example.productservice.cache;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.SubscriptionListener;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Stands in for Redis in tests: every command succeeds and reads find nothing, so each cache lookup is a miss.
+// commandsDuring records the commands the calling thread sends, as "NAME key", to count Redis round trips
+// per operation without picking up the background tasks' commands.
+public class CountingRedisConnectionFactory implements RedisConnectionFactory {
+    
+    // Connection housekeeping rather than commands sent to the server
+    private static final Set<String> NOT_COMMANDS = Set.of("close", "isClosed", "getNativeConnection", "isQueueing",
+            "isPipelined", "openPipeline", "closePipeline", "getSentinelConnection", "isSubscribed", "getSubscription",
+            "toString", "hashCode", "equals");
+    
+    private final ThreadLocal<List<String>> recording = new ThreadLocal<>();
+    
+    public List<String> commandsDuring(Runnable action) {
+        List<String> commands = new ArrayList<>();
+        recording.set(commands);
+        try {
+            action.run();
+        } finally {
+            recording.remove();
+        }
+        return commands;
+    }
+    
+    @Override
+    public RedisConnection getConnection() {
+        return (RedisConnection) Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+                new Class<?>[]{RedisConnection.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    // The connection implements every command interface, so stringCommands() and the like return it
+                    if (name.equals("commands") || name.endsWith("Commands") && method.getParameterCount() == 0) {
+                        return proxy;
+                    }
+                    // Confirms subscriptions straight away, which is all the invalidation listener waits for
+                    if (name.equals("subscribe") && args[0] instanceof SubscriptionListener listener) {
+                        for (byte[] channel : (byte[][]) args[1]) {
+                            listener.onChannelSubscribed(channel, 1);
+                        }
+                    }
+                    if (!NOT_COMMANDS.contains(name)) {
+                        List<String> commands = recording.get();
+                        if (commands != null) {
+                            commands.add(describe(name, args));
+                        }
+                    }
+                    return emptyResult(method.getReturnType());
+                });
+    }
+    
+    private static String describe(String name, Object[] args) {
+        String command = name.toUpperCase();
+        if (args == null || args.length == 0) {
+            return command;
+        }
+        // Multi-key commands such as DEL take their keys as varargs
+        Object first = args[0] instanceof byte[][] keys && keys.length > 0 ? keys[0] : args[0];
+        return first instanceof byte[] key ? command + " " + new String(key, StandardCharsets.UTF_8) : command;
+    }
+    
+    private static Object emptyResult(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return null;
+    }
+    
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return false;
+    }
+    
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        throw new UnsupportedOperationException("Not a cluster");
+    }
+    
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        throw new UnsupportedOperationException("No sentinels");
+    }
+    
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.productservice.outbox;
+
+import com.example.productservice.cache.CountingRedisConnectionFactory;
+import com.example.productservice.dto.ProductEventDto;
+import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductEvent;
+import com.example.productservice.repository.ProductEventRepository;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// An event whose transaction commits long after a later one must still reach a reader that has already
+// read past the later event, as a slow import batch or write-behind flush does it
+@SpringBootTest
+@Import(CountingRedisConnectionFactory.class)
+class ProductOutboxReplayTest {
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    
+    @Autowired
+    private ProductOutbox productOutbox;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductEventRepository productEventRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Test
+    void eventCommittedLateIsStillReplayed() throws Exception {
+        Long productId = productRepository.save(
+                new Product("Kettle", "Steel kettle", new BigDecimal("39.99"), 10, "Kitchen")).getId();
+        long start = productOutbox.latestOffset();
+        
+        // Appends its event first, so it holds the lower id, but commits last
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slowWrite = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    productOutbox.stockChanged(productId, 7);
+                    appended.countDown();
+                    await(commit);
+                }));
+        assertThat(appended.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+        
+        transactionTemplate.executeWithoutResult(status -> productOutbox.stockChanged(productId, 8));
+        List<ProductEventDto> read = waitFor(() -> eventsOf(productId, productOutbox.eventsAfter(start, 500)),
+                events -> !events.isEmpty());
+        assertThat(read).extracting(ProductEventDto::getStockQuantity).containsExactly(8);
+        // Well past the replay delay the offsets used to hold events back by
+        Thread.sleep(1500);
+        long offset = productOutbox.latestOffset();
+        
+        commit.countDown();
+        slowWrite.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        
+        assertThat(productEventRepository.findAll(Sort.by("id")))
+                .filteredOn(event -> productId.equals(event.getProductId()))
+                .extracting(ProductEvent::getStockQuantity)
+                .as("the late event holds the lower id")
+                .containsExactly(7, 8);
+        List<ProductEventDto> replayed = waitFor(() -> eventsOf(productId, productOutbox.eventsAfter(offset, 500)),
+                events -> !events.isEmpty());
+        assertThat(replayed).extracting(ProductEventDto::getStockQuantity).containsExactly(7);
+        assertThat(replayed.get(0).getOffset()).isGreaterThan(offset);
+    }
+    
+    private static List<ProductEventDto> eventsOf(Long productId, List<ProductEventDto> events) {
+        return events.stream().filter(event -> productId.equals(event.getProductId())).toList();
+    }
+    
+    // The sequencer gives events their offsets in the background
+    private static <T> T waitFor(Supplier<T> read, Predicate<T> done) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        T value = read.get();
+        while (!done.test(value) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            value = read.get();
+        }
+        return value;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.CountingRedisConnectionFactory;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each product write touches only that product's cache entry: one write to or delete of products::<id>, one
+// invalidation message for the other replicas' L1, and the in-stock index update. A write that flushed the
+// whole cache would show up here as KEYS/SCAN plus a DEL per cached product.
+@SpringBootTest
+@Import(CountingRedisConnectionFactory.class)
+class ProductCacheRedisOperationsTest {
+    
+    private static final String INVALIDATION = "PUBLISH product-cache-invalidation";
+    // The in-stock index script run after commit
+    private static final String IN_STOCK_RECORD = "EVALSHA";
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CountingRedisConnectionFactory redis;
+    
+    private Long productId;
+    
+    @BeforeEach
+    void setUp() {
+        productId = productRepository.save(
+                new Product("Kettle", "Steel kettle", new BigDecimal("39.99"), 10, "Kitchen")).getId();
+        // Other cached products, which a write to this one must leave alone
+        for (int i = 0; i < 3; i++) {
+            Long otherId = productRepository.save(
+                    new Product("Lamp " + i, "Desk lamp", new BigDecimal("19.99"), 5, "Office")).getId();
+            productService.getProductById(otherId);
+        }
+    }
+    
+    @Test
+    void updateProductPutsOnlyItsOwnEntry() {
+        Product details = new Product("Kettle", "Steel kettle, 1.7 l", new BigDecimal("34.99"), 12, "Kitchen");
+        
+        List<String> commands = redis.commandsDuring(() -> productService.updateProduct(productId, details));
+        
+        assertThat(commands).containsExactlyInAnyOrder("SET products::" + productId, INVALIDATION, IN_STOCK_RECORD);
+    }
+    
+    @Test
+    void reserveStockEvictsOnlyItsOwnEntry() {
+        List<String> commands = redis.commandsDuring(() -> productService.reserveStock(productId, 1));
+        
+        assertThat(commands).containsExactlyInAnyOrder("DEL products::" + productId, INVALIDATION, IN_STOCK_RECORD);
+    }
+    
+    @Test
+    void deleteProductEvictsOnlyItsOwnEntry() {
+        List<String> commands = redis.commandsDuring(() -> productService.deleteProduct(productId));
+        
+        assertThat(commands).containsExactlyInAnyOrder("DEL products::" + productId, INVALIDATION,
+                "ZREM {inventory}:in-stock", "HDEL {inventory}:in-stock:versions");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.CountingRedisConnectionFactory;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@Import(CountingRedisConnectionFactory.class)
+class ProductCacheStampedeTest {
+    
+    private static final int READERS = 1000;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @SpyBean
+    private ProductRepository productRepository;
+    
+    @Test
+    void concurrentMissesForOneKeyQueryTheDatabaseOnce() throws Exception {
+        Long id = productRepository.save(
+                new Product("Kettle", "Steel kettle", new BigDecimal("39.99"), 10, "Kitchen")).getId();
+        cacheManager.getCache(ProductService.PRODUCT_CACHE).evict(id);
+        
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<Optional<Product>>> reads = new ArrayList<>(READERS);
+            for (int i = 0; i < READERS; i++) {
+                reads.add(readers.submit(() -> {
+                    start.await();
+                    return productService.getProductById(id);
+                }));
+            }
+            start.countDown();
+            
+            for (Future<Optional<Product>> read : reads) {
+                assertThat(read.get()).get().extracting(Product::getName).isEqualTo("Kettle");
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        verify(productRepository, times(1)).findById(id);
+    }
+}
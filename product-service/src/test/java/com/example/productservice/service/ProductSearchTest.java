@@ -0,0 +1,70 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.CountingRedisConnectionFactory;
+import com.example.productservice.model.Product;
+import com.example.productservice.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+// The /search contract: with the index built, word prefixes of name and category and whole description words;
+// before that, the name as a substring
+@SpringBootTest
+@Import(CountingRedisConnectionFactory.class)
+class ProductSearchTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @SpyBean
+    private ProductSearchIndex productSearchIndex;
+    
+    private Long productId;
+    
+    @BeforeEach
+    void setUp() {
+        productId = productService.createProduct(new Product("Quillon Percolator", "Stovetop espresso maker",
+                new BigDecimal("24.99"), 10, "Brewware")).getId();
+    }
+    
+    @Test
+    void indexMatchesWordPrefixesOfNameAndCategory() {
+        assertThat(productSearchIndex.isReady()).isTrue();
+        
+        assertThat(searchIds("percol")).contains(productId);
+        assertThat(searchIds("PERCOLATOR quill")).contains(productId);
+        assertThat(searchIds("brewware")).contains(productId);
+        assertThat(searchIds("stovetop")).contains(productId);
+        
+        // Mid-word text, description prefixes and words the product lacks do not match
+        assertThat(searchIds("ercolator")).doesNotContain(productId);
+        assertThat(searchIds("stove")).doesNotContain(productId);
+        assertThat(searchIds("percolator grinder")).doesNotContain(productId);
+    }
+    
+    @Test
+    void nameSubstringIsMatchedUntilTheIndexIsBuilt() {
+        doReturn(false).when(productSearchIndex).isReady();
+        
+        assertThat(searchIds("ercolator")).contains(productId);
+        assertThat(searchIds("brewware")).doesNotContain(productId);
+    }
+    
+    @Test
+    void queryWithoutWordsMatchesTheNameAsASubstring() {
+        assertThat(searchIds(" ")).contains(productId);
+    }
+    
+    private List<Long> searchIds(String query) {
+        return productService.searchProductsByName(query).stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.CountingRedisConnectionFactory;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Concurrent reservations against the conditional UPDATE: exactly the available stock is handed out,
+// and the column never goes below zero
+@SpringBootTest
+@Import(CountingRedisConnectionFactory.class)
+class ProductStockReservationTest {
+    
+    private static final int STOCK = 50;
+    private static final int RESERVATIONS = 200;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Test
+    void concurrentReservationsSucceedExactlyAsOftenAsThereIsStock() throws Exception {
+        Long id = productRepository.save(
+                new Product("Kettle", "Steel kettle", new BigDecimal("39.99"), STOCK, "Kitchen")).getId();
+        
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(RESERVATIONS);
+        int successes = 0;
+        try {
+            List<Future<Boolean>> reservations = new ArrayList<>(RESERVATIONS);
+            for (int i = 0; i < RESERVATIONS; i++) {
+                reservations.add(buyers.submit(() -> {
+                    start.await();
+                    return productService.reserveStock(id, 1);
+                }));
+            }
+            start.countDown();
+            
+            for (Future<Boolean> reservation : reservations) {
+                if (reservation.get()) {
+                    successes++;
+                }
+            }
+        } finally {
+            buyers.shutdownNow();
+        }
+        
+        assertThat(successes).isEqualTo(STOCK);
+        assertThat(productRepository.findStockQuantityById(id)).contains(0);
+    }
+}
@@ -0,0 +1,77 @@
+#!/bin/bash
+
+# Cache Stampede Test
+# Expires one hot product's cache entry, fires concurrent reads at it and checks that the
+# Product Service loaded it from the database only once (cache.loads{result=loaded}).
+# Make sure a single Product Service instance is running on http://localhost:8081
+
+SERVICE_URL="${SERVICE_URL:-http://localhost:8081}"
+BASE_URL="$SERVICE_URL/api/products"
+REQUESTS="${REQUESTS:-1000}"
+CONCURRENCY="${CONCURRENCY:-200}"
+
+echo "🧪 Cache stampede test"
+echo "======================"
+echo "Requests: $REQUESTS, concurrency: $CONCURRENCY"
+echo ""
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+metric() {
+    curl -s "$SERVICE_URL/actuator/metrics/cache.loads?tag=cache:products&tag=result:$1" \
+      | grep -o '"value":[0-9.]*' | head -1 | cut -d':' -f2 | cut -d'.' -f1
+}
+
+# Create the hot product
+echo -e "${BLUE}1. Creating hot product...${NC}"
+PRODUCT_RESPONSE=$(curl -s -X POST $BASE_URL \
+  -H "Content-Type: application/json" \
+  -d '{
+    "name": "Hot Product",
+    "description": "Cache stampede test product",
+    "price": 19.99,
+    "stockQuantity": 100,
+    "category": "Stress"
+  }')
+
+PRODUCT_ID=$(echo $PRODUCT_RESPONSE | grep -o '"id":[0-9]*' | cut -d':' -f2)
+if [ -z "$PRODUCT_ID" ]; then
+    echo -e "${RED}❌ Could not create product: $PRODUCT_RESPONSE${NC}"
+    exit 1
+fi
+echo "Product ID: $PRODUCT_ID"
+echo ""
+
+# A stock update evicts the entry from both cache tiers, as if its TTL had run out
+echo -e "${BLUE}2. Expiring the cache entry...${NC}"
+curl -s -o /dev/null -X PATCH "$BASE_URL/$PRODUCT_ID/stock?quantity=99"
+LOADED_BEFORE=$(metric loaded)
+COALESCED_BEFORE=$(metric coalesced)
+echo ""
+
+echo -e "${BLUE}3. Firing $REQUESTS concurrent reads...${NC}"
+START_NS=$(date +%s%N)
+OK=$(seq 1 $REQUESTS | xargs -P $CONCURRENCY -I{} \
+  curl -s -o /dev/null -w '%{http_code}\n' "$BASE_URL/$PRODUCT_ID" | grep -c 200)
+END_NS=$(date +%s%N)
+ELAPSED_MS=$(( (END_NS - START_NS) / 1000000 ))
+
+LOADS=$(( $(metric loaded) - ${LOADED_BEFORE:-0} ))
+COALESCED=$(( $(metric coalesced) - ${COALESCED_BEFORE:-0} ))
+
+echo "Successful reads:     $OK"
+echo "Database loads:       $LOADS"
+echo "Coalesced waiters:    $COALESCED"
+echo "Elapsed:              ${ELAPSED_MS} ms"
+echo ""
+
+if [ "$OK" -eq "$REQUESTS" ] && [ "$LOADS" -eq 1 ]; then
+    echo -e "${GREEN}✅ Single database load for $REQUESTS concurrent reads${NC}"
+else
+    echo -e "${RED}❌ Expected exactly one database load, got $LOADS${NC}"
+    exit 1
+fi
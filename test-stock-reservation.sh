@@ -0,0 +1,70 @@
+#!/bin/bash
+
+# Stock Reservation Concurrency Stress Test
+# Hammers a single product with concurrent reservations and checks that it is never oversold.
+# Make sure the Product Service is running on http://localhost:8081
+
+BASE_URL="${BASE_URL:-http://localhost:8081/api/products}"
+INITIAL_STOCK="${INITIAL_STOCK:-500}"
+REQUESTS="${REQUESTS:-2000}"
+CONCURRENCY="${CONCURRENCY:-64}"
+
+echo "🧪 Stress testing stock reservation"
+echo "==================================="
+echo "Initial stock: $INITIAL_STOCK, requests: $REQUESTS, concurrency: $CONCURRENCY"
+echo ""
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+# Create the hot product
+echo -e "${BLUE}1. Creating hot product...${NC}"
+PRODUCT_RESPONSE=$(curl -s -X POST $BASE_URL \
+  -H "Content-Type: application/json" \
+  -d "{
+    \"name\": \"Flash Sale Item\",
+    \"description\": \"Reservation stress test product\",
+    \"price\": 9.99,
+    \"stockQuantity\": $INITIAL_STOCK,
+    \"category\": \"Stress\"
+  }")
+
+PRODUCT_ID=$(echo $PRODUCT_RESPONSE | grep -o '"id":[0-9]*' | cut -d':' -f2)
+if [ -z "$PRODUCT_ID" ]; then
+    echo -e "${RED}❌ Could not create product: $PRODUCT_RESPONSE${NC}"
+    exit 1
+fi
+echo "Product ID: $PRODUCT_ID"
+echo ""
+
+# Fire reservations of one unit each from many concurrent clients
+echo -e "${BLUE}2. Firing $REQUESTS concurrent reservations...${NC}"
+START_NS=$(date +%s%N)
+SUCCESSES=$(seq 1 $REQUESTS | xargs -P $CONCURRENCY -I{} \
+  curl -s -w '\n' -X POST "$BASE_URL/$PRODUCT_ID/reserve?quantity=1" | grep -o true | wc -l)
+END_NS=$(date +%s%N)
+
+ELAPSED_MS=$(( (END_NS - START_NS) / 1000000 ))
+[ $ELAPSED_MS -eq 0 ] && ELAPSED_MS=1
+RATE=$(( REQUESTS * 1000 / ELAPSED_MS ))
+
+FINAL_STOCK=$(curl -s "$BASE_URL/$PRODUCT_ID" | grep -o '"stockQuantity":-\?[0-9]*' | cut -d':' -f2)
+
+echo "Successful reservations: $SUCCESSES"
+echo "Final stock:             $FINAL_STOCK"
+echo "Elapsed:                 ${ELAPSED_MS} ms"
+echo "Throughput:              ${RATE} reservations/second"
+echo ""
+
+# Verify there was no oversell
+EXPECTED_SUCCESSES=$(( REQUESTS < INITIAL_STOCK ? REQUESTS : INITIAL_STOCK ))
+if [ "$FINAL_STOCK" -ge 0 ] && [ $(( INITIAL_STOCK - SUCCESSES )) -eq "$FINAL_STOCK" ] \
+   && [ "$SUCCESSES" -eq "$EXPECTED_SUCCESSES" ]; then
+    echo -e "${GREEN}✅ No oversell: stock accounting is consistent${NC}"
+else
+    echo -e "${RED}❌ Oversell or lost update detected${NC}"
+    exit 1
+fi